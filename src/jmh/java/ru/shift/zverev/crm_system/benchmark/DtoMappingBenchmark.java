@@ -0,0 +1,56 @@
+package ru.shift.zverev.crm_system.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.shift.zverev.crm_system.dto.SellerDto;
+import ru.shift.zverev.crm_system.dto.TransactionDto;
+import ru.shift.zverev.crm_system.model.Seller;
+import ru.shift.zverev.crm_system.model.Transaction;
+import ru.shift.zverev.crm_system.service.SellerService;
+import ru.shift.zverev.crm_system.service.TransactionService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+// Маппинг сущностей в DTO на списках, как в списочных endpoints
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+// 10M транзакций: сущности ~1.7 ГБ + DTO одной операции ~0.45 ГБ
+@Fork(jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DtoMappingBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int transactions;
+
+    @Param({"1000"})
+    public int sellers;
+
+    private List<Seller> sellerList;
+    private List<Transaction> transactionList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sellerList = SyntheticSales.sellers(sellers);
+        transactionList = SyntheticSales.transactions(transactions, sellerList);
+    }
+
+    @Benchmark
+    public List<TransactionDto> transactionsToDto() {
+        List<TransactionDto> dtos = new ArrayList<>(transactionList.size());
+        for (Transaction transaction : transactionList) {
+            dtos.add(TransactionService.toDto(transaction));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<SellerDto> sellersToDto() {
+        List<SellerDto> dtos = new ArrayList<>(sellerList.size());
+        for (Seller seller : sellerList) {
+            dtos.add(SellerService.toDto(seller));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.shift.zverev.crm_system.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.shift.zverev.crm_system.dto.SellerDto;
+import ru.shift.zverev.crm_system.dto.TransactionDto;
+import ru.shift.zverev.crm_system.model.Seller;
+import ru.shift.zverev.crm_system.service.SellerService;
+import ru.shift.zverev.crm_system.service.TransactionService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+// Сериализация списков DTO тем же ObjectMapper, что строит Spring (JavaTimeModule, даты строками)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+// 10M транзакций: при подготовке сущности ~1.7 ГБ и DTO ~0.45 ГБ одновременно
+@Fork(jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class JsonWriteBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int transactions;
+
+    @Param({"1000"})
+    public int sellers;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter ndjsonWriter;
+    private List<TransactionDto> transactionDtos;
+    private List<SellerDto> sellerDtos;
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        ndjsonWriter = objectMapper.writerFor(TransactionDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        List<Seller> sellerList = SyntheticSales.sellers(sellers);
+        transactionDtos = SyntheticSales.transactions(transactions, sellerList).stream()
+                .map(TransactionService::toDto)
+                .toList();
+        sellerDtos = sellerList.stream().map(SellerService::toDto).toList();
+    }
+
+    @Benchmark
+    public void writeTransactionList() throws IOException {
+        objectMapper.writeValue(sink, transactionDtos);
+    }
+
+    // как GET /api/transactions/export: один генератор на поток, по объекту на строку, без flush после каждой
+    @Benchmark
+    public void writeTransactionNdjson() throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(sink)) {
+            for (TransactionDto dto : transactionDtos) {
+                ndjsonWriter.writeValue(generator, dto);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    @Benchmark
+    public void writeSellerList() throws IOException {
+        objectMapper.writeValue(sink, sellerDtos);
+    }
+}
@@ -0,0 +1,94 @@
+package ru.shift.zverev.crm_system.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import org.openjdk.jmh.annotations.*;
+import ru.shift.zverev.crm_system.config.SamplingTurboFilter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+
+// Цена строки лога org.hibernate.SQL для вызывающего потока при разных конвейерах из logback-spring.xml:
+// sync - синхронный аппендер (как CONSOLE без профиля), async - AsyncAppender с neverBlock,
+// asyncSampled - плюс SamplingTurboFilter 1 из 100 (профиль async-logging). Вывод - во временный файл.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class LoggingBenchmark {
+
+    private static final String STATEMENT = "select t1_0.id,t1_0.amount,t1_0.payment_type,t1_0.seller_id,"
+            + "t1_0.transaction_date from transactions t1_0 where t1_0.seller_id=? and t1_0.transaction_date>=? "
+            + "order by t1_0.transaction_date,t1_0.id fetch first ? rows only";
+
+    @Param({"sync", "async", "asyncSampled"})
+    public String pipeline;
+
+    private LoggerContext context;
+    private Logger logger;
+    private Path logFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        logFile = Files.createTempFile("logging-benchmark", ".log");
+        context = new LoggerContext();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.toString());
+        file.setEncoder(encoder);
+        file.start();
+
+        Appender<ILoggingEvent> appender = file;
+        if (!"sync".equals(pipeline)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(file);
+            async.start();
+            appender = async;
+        }
+        if ("asyncSampled".equals(pipeline)) {
+            SamplingTurboFilter sampling = new SamplingTurboFilter();
+            sampling.setContext(context);
+            sampling.addLoggerName("org.hibernate.SQL");
+            sampling.setRate(100);
+            sampling.start();
+            context.addTurboFilter(sampling);
+        }
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.addAppender(appender);
+        logger = context.getLogger("org.hibernate.SQL");
+        logger.setLevel(ch.qos.logback.classic.Level.DEBUG);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.stop();
+        Files.deleteIfExists(logFile);
+    }
+
+    // как SqlStatementLogger Hibernate: проверка уровня, затем сообщение
+    @Benchmark
+    public void logStatement() {
+        if (logger.isDebugEnabled()) {
+            logger.debug(STATEMENT);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.shift.zverev.crm_system.benchmark;
+
+import org.antlr.v4.runtime.misc.Pair;
+import org.openjdk.jmh.annotations.*;
+import ru.shift.zverev.crm_system.dto.SalesMetric;
+import ru.shift.zverev.crm_system.service.SalesWindow;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+// SellerService.getMostProductiveTimeById без БД: упаковка дневных итогов в массивы и поиск лучшего окна
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SalesWindowBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int transactions;
+
+    @Param({"7", "30"})
+    public long windowDays;
+
+    @Param({"COUNT", "AMOUNT"})
+    public SalesMetric metric;
+
+    private List<Object[]> dailyTotals;
+    private SalesWindow window;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dailyTotals = SyntheticSales.dailyTotals(transactions);
+        window = SalesWindow.fromDailyTotals(dailyTotals);
+    }
+
+    @Benchmark
+    public SalesWindow fromDailyTotals() {
+        return SalesWindow.fromDailyTotals(dailyTotals);
+    }
+
+    @Benchmark
+    public Pair<LocalDate, LocalDate> bestWindow() {
+        return window.best(windowDays, metric);
+    }
+
+    @Benchmark
+    public Pair<LocalDate, LocalDate> fromDailyTotalsAndBestWindow() {
+        return SalesWindow.fromDailyTotals(dailyTotals).best(windowDays, metric);
+    }
+}
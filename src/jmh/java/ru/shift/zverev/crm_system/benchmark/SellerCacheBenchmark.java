@@ -0,0 +1,123 @@
+package ru.shift.zverev.crm_system.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.shift.zverev.crm_system.CrmSystemApplication;
+import ru.shift.zverev.crm_system.dto.SellerDto;
+import ru.shift.zverev.crm_system.model.Seller;
+import ru.shift.zverev.crm_system.model.Transaction;
+import ru.shift.zverev.crm_system.service.SellerServiceInterface;
+import ru.shift.zverev.crm_system.service.TransactionServiceInterface;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+
+// Кэш второго уровня для Seller: приложение поднимается целиком (H2 + синтетические данные), операции вызывают
+// сервисы так же, как контроллеры. Счётчик statements - SQL-операторы (статистика Hibernate) в секунду;
+// делённый на пропускную способность, он даёт число операторов на операцию.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class SellerCacheBenchmark {
+
+    private static final int SELLERS = 100;
+
+    @Param({"false", "true"})
+    public boolean secondLevelCache;
+
+    private ConfigurableApplicationContext context;
+    private SellerServiceInterface sellerService;
+    private TransactionServiceInterface transactionService;
+    private Statistics statistics;
+    private long[] sellerIds;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long statements;
+    }
+
+    @State(Scope.Thread)
+    public static class Sellers {
+        private final SplittableRandom random = new SplittableRandom(SyntheticSales.SEED);
+        private long[] ids;
+
+        @Setup(Level.Trial)
+        public void load(SellerCacheBenchmark benchmark) {
+            ids = benchmark.sellerIds;
+        }
+
+        long next() {
+            return ids[random.nextInt(ids.length)];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(CrmSystemApplication.class).run(
+                "--spring.main.web-application-type=none",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.orm.jdbc.bind=WARN",
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache,
+                "--crm.generator.sellers=" + SELLERS,
+                "--crm.generator.transactions=10000");
+        sellerService = context.getBean(SellerServiceInterface.class);
+        transactionService = context.getBean(TransactionServiceInterface.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        sellerIds = sellerService.getPage(null, SELLERS).getItems().stream().mapToLong(SellerDto::getId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    // GET /api/sellers/{id}
+    @Benchmark
+    public Optional<SellerDto> getSeller(Sellers sellers, Counters counters) {
+        long before = statistics.getPrepareStatementCount();
+        Optional<SellerDto> seller = sellerService.getById(sellers.next());
+        counters.statements += statistics.getPrepareStatementCount() - before;
+        return seller;
+    }
+
+    // PUT /api/sellers/{id}: чтение продавца и UPDATE
+    @Benchmark
+    public Seller updateSeller(Sellers sellers, Counters counters) {
+        long id = sellers.next();
+        long before = statistics.getPrepareStatementCount();
+        Seller details = new Seller();
+        details.setName("Seller " + id);
+        Seller seller = sellerService.update(id, details);
+        counters.statements += statistics.getPrepareStatementCount() - before;
+        return seller;
+    }
+
+    // POST /api/transactions: ссылка на продавца, вставка, имя продавца для ответа
+    @Benchmark
+    public String createTransaction(Sellers sellers, Counters counters) {
+        long id = sellers.next();
+        long before = statistics.getPrepareStatementCount();
+        Transaction transaction = new Transaction(sellerService.getReferenceById(id), new BigDecimal("100.00"),
+                Transaction.PaymentType.CARD, LocalDateTime.now());
+        transactionService.create(transaction);
+        String name = sellerService.getSellerName(id).orElseThrow();
+        counters.statements += statistics.getPrepareStatementCount() - before;
+        return name;
+    }
+}
@@ -0,0 +1,68 @@
+package ru.shift.zverev.crm_system.benchmark;
+
+import ru.shift.zverev.crm_system.model.Seller;
+import ru.shift.zverev.crm_system.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+
+// Детерминированные синтетические данные для бенчмарков: один seed - один и тот же набор
+final class SyntheticSales {
+
+    static final long SEED = 42L;
+    // история продаж не длиннее 10 лет, чтобы на больших объёмах дни были "плотными"
+    private static final int MAX_DAYS = 3650;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2015, 1, 1);
+
+    private SyntheticSales() {}
+
+    // строки (day, count, sum) по дням с продажами - в том виде, в каком их отдаёт дневной срез
+    static List<Object[]> dailyTotals(int transactions) {
+        int days = Math.min(MAX_DAYS, Math.max(30, transactions / 50));
+        long[] counts = new long[days];
+        long[] cents = new long[days];
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < transactions; i++) {
+            int day = random.nextInt(days);
+            counts[day]++;
+            cents[day] += random.nextLong(100, 500_000);
+        }
+
+        List<Object[]> rows = new ArrayList<>(days);
+        for (int day = 0; day < days; day++) {
+            if (counts[day] > 0) {
+                rows.add(new Object[]{FIRST_DAY.plusDays(day), counts[day], BigDecimal.valueOf(cents[day], 2)});
+            }
+        }
+        return rows;
+    }
+
+    static List<Seller> sellers(int count) {
+        List<Seller> sellers = new ArrayList<>(count);
+        LocalDateTime registered = FIRST_DAY.atStartOfDay();
+        for (long id = 1; id <= count; id++) {
+            sellers.add(new Seller(id, "Продавец " + id, "seller" + id + "@example.com", registered.plusHours(id)));
+        }
+        return sellers;
+    }
+
+    static List<Transaction> transactions(int count, List<Seller> sellers) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        Transaction.PaymentType[] paymentTypes = Transaction.PaymentType.values();
+        LocalDateTime start = FIRST_DAY.atStartOfDay();
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            transactions.add(new Transaction(id,
+                    sellers.get(random.nextInt(sellers.size())),
+                    BigDecimal.valueOf(random.nextLong(100, 500_000), 2),
+                    paymentTypes[random.nextInt(paymentTypes.length)],
+                    start.plusSeconds(random.nextLong(MAX_DAYS * 86_400L))));
+        }
+        return transactions;
+    }
+}
@@ -0,0 +1,100 @@
+package ru.shift.zverev.crm_system.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.shift.zverev.crm_system.CrmSystemApplication;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+
+// Нагрузочное сравнение платформенных потоков Tomcat и профиля virtual: приложение поднимается целиком
+// (H2 + синтетические данные), одна операция - concurrency одновременных GET с чтением из БД.
+// Запросов в секунду = ops/s * concurrency; ошибочные ответы считаются как исключение.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+public class ThreadModeLoadBenchmark {
+
+    private static final int SELLERS = 100;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"100", "1000"})
+    public int concurrency;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private ExecutorService clients;
+    private List<URI> uris;
+
+    @Setup(Level.Trial)
+    public void start() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(CrmSystemApplication.class);
+        if ("virtual".equals(threads)) {
+            builder.profiles("virtual");
+        }
+        context = builder.run(
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "--crm.generator.sellers=" + SELLERS,
+                "--crm.generator.transactions=100000");
+        int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        clients = Executors.newVirtualThreadPerTaskExecutor();
+
+        // страница транзакций продавца: индекс (seller_id, transaction_date), одно соединение на запрос
+        SplittableRandom random = new SplittableRandom(SyntheticSales.SEED);
+        uris = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            uris.add(URI.create("http://localhost:" + port + "/api/transactions/seller/"
+                    + (1 + random.nextInt(SELLERS)) + "?limit=50"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        clients.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public int burst() throws InterruptedException, ExecutionException {
+        List<Future<Integer>> responses = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            HttpRequest request = HttpRequest.newBuilder(uris.get(i % uris.size())).GET().build();
+            responses.add(clients.submit(() -> client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()));
+        }
+        int ok = 0;
+        for (Future<Integer> response : responses) {
+            int status = response.get();
+            if (status != 200) {
+                throw new IllegalStateException("Unexpected status " + status);
+            }
+            ok++;
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,94 @@
+package ru.shift.zverev.crm_system.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.shift.zverev.crm_system.config.ReplicaDataSourceConfig;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+
+// Результаты аналитики по окнам времени. Окна "последние N дней" считаются от начала текущего интервала
+// (crm.analytics.cache.granularity), поэтому повторные запросы в пределах интервала попадают в один ключ.
+// Изменение транзакции удаляет записи, чьё окно содержит её дату; изменение продавца - все записи
+// (в ответах есть имя и контакты продавца). С репликой результаты, посчитанные в течение max-staleness
+// после удаления, не сохраняются: реплика могла ещё не получить изменение.
+@Component
+public class AnalyticsResultCache {
+
+    private final Cache<Key, Optional<Object>> results;
+    private final long granularitySeconds;
+    // результат, посчитанный во время удаления записей, мог не увидеть изменение - такой не сохраняем
+    private final AtomicLong invalidations = new AtomicLong();
+    private final long settleNanos;
+    // пишется до увеличения invalidations
+    private volatile long lastInvalidation;
+
+    @Autowired
+    public AnalyticsResultCache(@Value("${crm.analytics.cache.granularity:1m}") Duration granularity,
+                                @Value("${crm.analytics.cache.maximum-size:1000}") long maximumSize,
+                                @Value(ReplicaDataSourceConfig.REPLICA_STALENESS) Duration replicaStaleness,
+                                MeterRegistry registry) {
+        if (granularity.toSeconds() < 1 || granularity.compareTo(Duration.ofDays(1)) > 0) {
+            throw new IllegalArgumentException("crm.analytics.cache.granularity must be between 1s and 1d");
+        }
+        this.granularitySeconds = granularity.toSeconds();
+        this.settleNanos = replicaStaleness.toNanos();
+        this.lastInvalidation = System.nanoTime() - settleNanos;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, results, "analytics");
+    }
+
+    // начало интервала, в который попадает time; интервалы отсчитываются от полуночи
+    public LocalDateTime quantize(LocalDateTime time) {
+        long second = time.toLocalTime().toSecondOfDay();
+        return time.toLocalDate().atStartOfDay().plusSeconds(second - second % granularitySeconds);
+    }
+
+    // end == null - окно открыто справа (до текущего момента)
+    @SuppressWarnings("unchecked")
+    public <T> T get(String name, LocalDateTime start, LocalDateTime end, Object params, Supplier<T> loader) {
+        Key key = new Key(name, start, end, params);
+        Optional<Object> cached = results.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached.orElse(null);
+        }
+        long generation = invalidations.get();
+        boolean settled = System.nanoTime() - lastInvalidation >= settleNanos;
+        T result = loader.get();
+        if (settled && invalidations.get() == generation) {
+            results.put(key, Optional.ofNullable(result));
+        }
+        return result;
+    }
+
+    public void transactionChanged(LocalDateTime transactionDate) {
+        lastInvalidation = System.nanoTime();
+        invalidations.incrementAndGet();
+        results.asMap().keySet().removeIf(key -> key.contains(transactionDate));
+    }
+
+    public void invalidateAll() {
+        lastInvalidation = System.nanoTime();
+        invalidations.incrementAndGet();
+        results.invalidateAll();
+    }
+
+    private record Key(String name, LocalDateTime start, LocalDateTime end, Object params) {
+
+        boolean contains(LocalDateTime date) {
+            return !date.isBefore(start) && (end == null || !date.isAfter(end));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ru.shift.zverev.crm_system.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.shift.zverev.crm_system.config.ReplicaDataSourceConfig;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+// Счётчики изменений продавцов и транзакций, из них строятся ETag ответов (GET с If-None-Match -> 304).
+// Счётчики живут в памяти, поэтому в тег входит эпоха экземпляра: после перезапуска старые теги не совпадут.
+// Увеличивать после коммита: иначе клиент может получить новый тег вместе со старыми данными.
+// С репликой то же верно, пока она не догнала основную базу: в течение max-staleness после изменения
+// теги равны null - ответ уходит без ETag и не закрепляется у клиента.
+@Component
+public class DataVersions {
+
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final AtomicLong sellers = new AtomicLong();
+    private final AtomicLong transactions = new AtomicLong();
+    private final long settleMillis;
+    private final Clock clock;
+    // пишется до увеличения счётчика: кто увидел новый счётчик, увидит и это время
+    private volatile long lastChange;
+
+    @Autowired
+    public DataVersions(@Value(ReplicaDataSourceConfig.REPLICA_STALENESS) Duration replicaStaleness) {
+        this(replicaStaleness, Clock.systemUTC());
+    }
+
+    DataVersions(Duration replicaStaleness, Clock clock) {
+        this.settleMillis = replicaStaleness.toMillis();
+        this.clock = clock;
+        this.lastChange = clock.millis() - settleMillis;
+    }
+
+    public void sellersChanged() {
+        lastChange = clock.millis();
+        sellers.incrementAndGet();
+    }
+
+    public void transactionsChanged() {
+        lastChange = clock.millis();
+        transactions.incrementAndGet();
+    }
+
+    // список и карточки продавцов
+    public String sellersTag() {
+        String tag = epoch + "-s" + sellers.get();
+        return settled() ? tag : null;
+    }
+
+    // аналитика зависит и от продавцов (имена в ответе), и от транзакций
+    public String analyticsTag() {
+        String tag = epoch + "-s" + sellers.get() + "-t" + transactions.get();
+        return settled() ? tag : null;
+    }
+
+    // окно, отсчитанное от текущего момента, сдвигается и без изменений: в тег добавляется его граница
+    public String analyticsTag(Object window) {
+        String tag = analyticsTag();
+        return tag != null ? tag + "-" + window : null;
+    }
+
+    private boolean settled() {
+        return clock.millis() - lastChange >= settleMillis;
+    }
+}
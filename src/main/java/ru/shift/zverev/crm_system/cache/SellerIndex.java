@@ -0,0 +1,49 @@
+package ru.shift.zverev.crm_system.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.shift.zverev.crm_system.repository.SellerRepository;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+// id -> имя всех продавцов; позволяет проверить продавца и собрать TransactionDto без SELECT по sellers.
+// Заполняется после старта (когда SyntheticDataGenerator уже отработал), дальше поддерживается SellerService.
+@Component
+public class SellerIndex {
+
+    private final SellerRepository sellerRepository;
+    private final Map<Long, String> sellerNames = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SellerIndex(SellerRepository sellerRepository) {
+        this.sellerRepository = sellerRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void hydrate() {
+        for (Object[] row : sellerRepository.findAllIdsAndNames()) {
+            sellerNames.put((Long) row[0], (String) row[1]);
+        }
+    }
+
+    public boolean contains(Long sellerId) {
+        return sellerNames.containsKey(sellerId);
+    }
+
+    public Optional<String> findName(Long sellerId) {
+        return Optional.ofNullable(sellerNames.get(sellerId));
+    }
+
+    public void put(Long sellerId, String name) {
+        sellerNames.put(sellerId, name);
+    }
+
+    public void remove(Long sellerId) {
+        sellerNames.remove(sellerId);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.shift.zverev.crm_system.cache;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+
+public record SellerSalesAggregate(BigDecimal total, long count, BigDecimal min, BigDecimal max,
+                                   LocalDateTime lastTransactionDate) {
+
+    public static final SellerSalesAggregate EMPTY = new SellerSalesAggregate(BigDecimal.ZERO, 0, null, null, null);
+
+    public static SellerSalesAggregate of(BigDecimal amount, LocalDateTime date) {
+        return new SellerSalesAggregate(amount, 1, amount, amount, date);
+    }
+
+    // строка (count, sum, min, max, max(date)) из агрегирующего запроса
+    public static SellerSalesAggregate fromRow(Object[] row, int offset) {
+        long count = ((Number) row[offset]).longValue();
+        if (count == 0) {
+            return EMPTY;
+        }
+        return new SellerSalesAggregate((BigDecimal) row[offset + 1], count, (BigDecimal) row[offset + 2],
+                (BigDecimal) row[offset + 3], (LocalDateTime) row[offset + 4]);
+    }
+
+    public SellerSalesAggregate plus(SellerSalesAggregate other) {
+        if (count == 0) {
+            return other;
+        }
+        return new SellerSalesAggregate(
+                total.add(other.total),
+                count + other.count,
+                min.min(other.min),
+                max.max(other.max),
+                lastTransactionDate.isAfter(other.lastTransactionDate) ? lastTransactionDate : other.lastTransactionDate);
+    }
+
+    // min, max и последнюю дату нельзя восстановить вычитанием, если удаляется граничное значение
+    public boolean isBoundary(BigDecimal amount, LocalDateTime date) {
+        return count <= 1 || amount.compareTo(min) == 0 || amount.compareTo(max) == 0
+                || !date.isBefore(lastTransactionDate);
+    }
+
+    public SellerSalesAggregate minus(BigDecimal amount) {
+        return new SellerSalesAggregate(total.subtract(amount), count - 1, min, max, lastTransactionDate);
+    }
+}
@@ -0,0 +1,130 @@
+package ru.shift.zverev.crm_system.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.shift.zverev.crm_system.repository.TransactionRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+
+// Итоги продаж по каждому продавцу за всё время, обновляются TransactionService после коммита.
+// Итог, прочитанный из БД (заполнение при старте, перечитывание продавца), принимается, только если во время
+// запроса по продавцу не шла ни одна запись: иначе неизвестно, попала ли она в выборку и применится ли ещё раз.
+// Такой продавец остаётся неизвестным и перечитывается при следующем find(). До заполнения find() пуст.
+@Component
+public class SellerSalesTotals {
+
+    // aggregate == null - итог неизвестен; pending - начатые и ещё не завершённые записи;
+    // stamp - номер последнего начала или завершения записи
+    private record Entry(SellerSalesAggregate aggregate, int pending, long stamp) {
+
+        Entry with(SellerSalesAggregate aggregate) {
+            return new Entry(aggregate, pending, stamp);
+        }
+
+        boolean quietSince(long since) {
+            return pending == 0 && stamp <= since;
+        }
+    }
+
+    private final TransactionRepository transactionRepository;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong stamps = new AtomicLong();
+    private volatile boolean ready;
+
+    @Autowired
+    public SellerSalesTotals(TransactionRepository transactionRepository) {
+        this.transactionRepository = transactionRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void hydrate() {
+        long since = stamps.get();
+        Map<Long, SellerSalesAggregate> loaded = new HashMap<>();
+        for (Object[] row : transactionRepository.aggregateAllBySeller()) {
+            loaded.put((Long) row[0], SellerSalesAggregate.fromRow(row, 1));
+        }
+        // продавцы, по которым уже были записи: принимаем выборку, только если записи закончились до неё
+        for (Long sellerId : entries.keySet()) {
+            entries.computeIfPresent(sellerId, (id, entry) -> entry.with(entry.quietSince(since)
+                    ? loaded.getOrDefault(id, SellerSalesAggregate.EMPTY) : null));
+        }
+        loaded.forEach((sellerId, aggregate) ->
+                entries.computeIfAbsent(sellerId, id -> new Entry(aggregate, 0, 0)));
+        ready = true;
+    }
+
+    // вызывается в транзакции записи до коммита; endChange - после её завершения (после add/subtract/replace)
+    public void beginChange(Long sellerId) {
+        long stamp = stamps.incrementAndGet();
+        entries.compute(sellerId, (id, entry) -> entry == null
+                ? new Entry(ready ? SellerSalesAggregate.EMPTY : null, 1, stamp)
+                : new Entry(entry.aggregate(), entry.pending() + 1, stamp));
+    }
+
+    public void endChange(Long sellerId) {
+        long stamp = stamps.incrementAndGet();
+        entries.computeIfPresent(sellerId, (id, entry) -> new Entry(entry.aggregate(), entry.pending() - 1, stamp));
+    }
+
+    public Optional<SellerSalesAggregate> find(Long sellerId) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        Entry entry = entries.get(sellerId);
+        if (entry == null) {
+            return Optional.of(SellerSalesAggregate.EMPTY);
+        }
+        if (entry.aggregate() != null) {
+            return Optional.of(entry.aggregate());
+        }
+        return Optional.of(reload(sellerId));
+    }
+
+    public void add(Long sellerId, BigDecimal amount, LocalDateTime date) {
+        update(sellerId, aggregate -> aggregate.plus(SellerSalesAggregate.of(amount, date)));
+    }
+
+    // min, max и последнюю дату вычитанием не восстановить: продавец становится неизвестным
+    public void subtract(Long sellerId, BigDecimal amount, LocalDateTime date) {
+        update(sellerId, aggregate -> aggregate.isBoundary(amount, date) ? null : aggregate.minus(amount));
+    }
+
+    public void replace(Long previousSellerId, BigDecimal previousAmount,
+                        Long sellerId, BigDecimal amount, LocalDateTime date) {
+        subtract(previousSellerId, previousAmount, date);
+        add(sellerId, amount, date);
+    }
+
+    private void update(Long sellerId, UnaryOperator<SellerSalesAggregate> change) {
+        if (!ready) {
+            return;
+        }
+        entries.compute(sellerId, (id, entry) -> {
+            if (entry == null) {
+                return new Entry(change.apply(SellerSalesAggregate.EMPTY), 0, 0);
+            }
+            return entry.aggregate() == null ? entry : entry.with(change.apply(entry.aggregate()));
+        });
+    }
+
+    private SellerSalesAggregate reload(Long sellerId) {
+        long since = stamps.get();
+        SellerSalesAggregate aggregate = transactionRepository.aggregateBySellerId(sellerId).stream()
+                .findFirst()
+                .map(row -> SellerSalesAggregate.fromRow(row, 0))
+                .orElse(SellerSalesAggregate.EMPTY);
+        entries.computeIfPresent(sellerId, (id, entry) ->
+                entry.aggregate() == null && entry.quietSince(since) ? entry.with(aggregate) : entry);
+        return aggregate;
+    }
+}
@@ -0,0 +1,47 @@
+package ru.shift.zverev.crm_system.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+
+// Оборачивает DataSource в ConnectionLimitingDataSource (включается в профиле virtual).
+// По умолчанию число разрешений равно размеру пула Hikari, так что ожидание переносится из пула на семафор.
+// Обёртки над другими DataSource (маршрутизация на реплику) не трогаем: ограничен каждый пул по отдельности.
+@Component
+@ConditionalOnProperty(name = "crm.datasource.limiter.enabled", havingValue = "true")
+public class ConnectionLimiterPostProcessor implements BeanPostProcessor {
+
+    private final int permits;
+    private final Duration acquireTimeout;
+
+    public ConnectionLimiterPostProcessor(@Value("${crm.datasource.limiter.permits:0}") int permits,
+                                          @Value("${crm.datasource.limiter.acquire-timeout:60s}") Duration acquireTimeout) {
+        this.permits = permits;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof DelegatingDataSource) {
+            return bean;
+        }
+        return new ConnectionLimitingDataSource(dataSource, resolvePermits(dataSource), acquireTimeout);
+    }
+
+    private int resolvePermits(DataSource dataSource) {
+        if (permits > 0) {
+            return permits;
+        }
+        if (dataSource instanceof HikariDataSource hikari) {
+            return hikari.getMaximumPoolSize();
+        }
+        throw new IllegalStateException("crm.datasource.limiter.permits must be set for " + dataSource.getClass());
+    }
+}
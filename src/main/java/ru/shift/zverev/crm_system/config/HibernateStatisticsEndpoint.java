@@ -0,0 +1,75 @@
+package ru.shift.zverev.crm_system.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+// GET /actuator/hibernate: накопленная статистика Hibernate (hibernate.generate_statistics) и сводка по запросам
+// от StatementCountFilter; DELETE /actuator/hibernate сбрасывает накопленную статистику.
+@Component
+@Endpoint(id = "hibernate")
+public class HibernateStatisticsEndpoint {
+
+    private final SessionFactory sessionFactory;
+    private final StatementCountFilter statementCountFilter;
+
+    @Autowired
+    public HibernateStatisticsEndpoint(EntityManagerFactory entityManagerFactory,
+                                       StatementCountFilter statementCountFilter) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.statementCountFilter = statementCountFilter;
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("cumulative", cumulative(sessionFactory.getStatistics()));
+        result.put("requests", requests());
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sessionFactory.getStatistics().clear();
+    }
+
+    private static Map<String, Object> cumulative(Statistics statistics) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        result.put("since", statistics.getStart());
+        result.put("statements", statistics.getPrepareStatementCount());
+        result.put("queryExecutions", statistics.getQueryExecutionCount());
+        result.put("queryExecutionMaxTimeMs", statistics.getQueryExecutionMaxTime());
+        result.put("slowestQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        result.put("entityLoads", statistics.getEntityLoadCount());
+        result.put("entityFetches", statistics.getEntityFetchCount());
+        result.put("collectionLoads", statistics.getCollectionLoadCount());
+        result.put("collectionFetches", statistics.getCollectionFetchCount());
+        result.put("secondLevelCacheHits", statistics.getSecondLevelCacheHitCount());
+        result.put("secondLevelCacheMisses", statistics.getSecondLevelCacheMissCount());
+        result.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        result.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+        result.put("flushes", statistics.getFlushCount());
+        result.put("transactions", statistics.getTransactionCount());
+        return result;
+    }
+
+    private Map<String, Object> requests() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statementThreshold", statementCountFilter.getThreshold());
+        result.put("count", statementCountFilter.getRequestCount());
+        result.put("flagged", statementCountFilter.getFlaggedCount());
+        result.put("maxStatements", statementCountFilter.getMaxStatements());
+        result.put("recentFlagged", statementCountFilter.getRecentFlagged());
+        return result;
+    }
+}
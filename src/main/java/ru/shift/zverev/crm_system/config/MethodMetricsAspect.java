@@ -0,0 +1,94 @@
+package ru.shift.zverev.crm_system.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import ru.shift.zverev.crm_system.dto.CursorPage;
+
+import java.util.Collection;
+
+
+// Метрики методов сервисов и репозиториев для /actuator/prometheus.
+// Время сервисов - crm.service.invocations (class, method, outcome, exception); время запросов репозиториев
+// пишет сам Spring Boot в spring.data.repository.invocations, гистограммы для него включены в application.properties.
+// Число строк из методов, возвращающих коллекцию или CursorPage, - crm.service.rows и crm.repository.rows.
+@Aspect
+@Component
+public class MethodMetricsAspect {
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public MethodMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("within(ru.shift.zverev.crm_system.service..*) && @within(org.springframework.stereotype.Service)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        String className = ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "success";
+        String exception = "none";
+        try {
+            Object result = joinPoint.proceed();
+            recordRows("crm.service.rows", className, method, result);
+            return result;
+        } catch (Throwable e) {
+            outcome = "error";
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("crm.service.invocations")
+                    .description("Service method execution time")
+                    .tags("class", className, "method", method, "outcome", outcome, "exception", exception)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+
+    @AfterReturning(pointcut = "execution(* org.springframework.data.repository.Repository+.*(..))", returning = "result")
+    public void countRepositoryRows(JoinPoint joinPoint, Object result) {
+        recordRows("crm.repository.rows", repositoryName(joinPoint), joinPoint.getSignature().getName(), result);
+    }
+
+    private void recordRows(String name, String className, String method, Object result) {
+        int rows;
+        if (result instanceof Collection<?> collection) {
+            rows = collection.size();
+        } else if (result instanceof CursorPage<?> page && page.getItems() != null) {
+            rows = page.getItems().size();
+        } else {
+            return;
+        }
+        DistributionSummary.builder(name)
+                .description("Rows returned by a method")
+                .baseUnit("rows")
+                .tags("class", className, "method", method)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(1_000_000.0)
+                .register(registry)
+                .record(rows);
+    }
+
+    // унаследованные методы (findAll, saveAll) объявлены в интерфейсах Spring Data, имя берём у интерфейса бина
+    private static String repositoryName(JoinPoint joinPoint) {
+        for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis())) {
+            if (Repository.class.isAssignableFrom(type)) {
+                return type.getSimpleName();
+            }
+        }
+        return joinPoint.getSignature().getDeclaringType().getSimpleName();
+    }
+}
@@ -0,0 +1,79 @@
+package ru.shift.zverev.crm_system.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Set;
+
+
+// Read-your-writes: изменяющий запрос ставит cookie со временем записи, и следующие max-staleness
+// запросы этого клиента читают из основной базы - реплика могла ещё не получить его изменения.
+// Асинхронная выгрузка (/api/transactions/export) и фоновые отчёты идут в других потоках и cookie не видят.
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE_NAME = "crm-last-write";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final Duration maxStaleness;
+    private final Clock clock;
+
+    public ReadYourWritesFilter(Duration maxStaleness) {
+        this(maxStaleness, Clock.systemUTC());
+    }
+
+    ReadYourWritesFilter(Duration maxStaleness, Clock clock) {
+        this.maxStaleness = maxStaleness;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = clock.millis();
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            // до обработки: после неё ответ может быть уже отправлен
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE_NAME, Long.toString(now))
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .maxAge(maxStaleness.toSeconds() + 1)
+                    .build()
+                    .toString());
+            ReplicaRoutingDataSource.requirePrimary();
+        } else if (now - lastWrite(request) < maxStaleness.toMillis()) {
+            ReplicaRoutingDataSource.requirePrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.reset();
+        }
+    }
+
+    private static long lastWrite(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,29 @@
+package ru.shift.zverev.crm_system.config;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+
+// Сессии транзакций, которые могут читать из реплики, берут сущности из кэша второго уровня, но не кладут
+// в него прочитанное: иначе отставшая копия жила бы в общем кэше весь его TTL, а не max-staleness.
+// Маршрут выбирается позже, при первом SQL, поэтому решение консервативное: readOnly-транзакция
+// без требования основной базы не наполняет кэш, даже если реплика отстала и чтение ушло в основную базу.
+public class ReplicaCacheModeJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (definition.isReadOnly() && !ReplicaRoutingDataSource.isPrimaryRequired()) {
+            // свойство, а не Session.setCacheMode: find() с подсказками (findById) берёт режим из свойств сессии.
+            // open-in-view выключен: сессия закрывается вместе с транзакцией, режим не нужно восстанавливать
+            entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        }
+        return transactionData;
+    }
+}
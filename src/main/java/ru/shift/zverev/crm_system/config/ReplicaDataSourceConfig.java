@@ -0,0 +1,101 @@
+package ru.shift.zverev.crm_system.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+
+// Пара пулов "основная база + реплика" вместо единственного DataSource (включается в профиле replica).
+// Основная база настраивается как обычно (spring.datasource.*), реплика - crm.datasource.replica.*.
+// Миграции Flyway применяются только к основной базе: схема на реплику приходит репликацией.
+@Configuration
+@ConditionalOnProperty(name = "crm.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    // насколько чтение может отставать от записи: max-staleness с репликой, 0 без неё
+    public static final String REPLICA_STALENESS =
+            "#{${crm.datasource.replica.enabled:false} ? '${crm.datasource.replica.max-staleness:5s}' : '0s'}";
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("crm.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${crm.datasource.replica.url}") String url,
+                                              @Value("${crm.datasource.replica.username:}") String username,
+                                              @Value("${crm.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                               @Value("${crm.datasource.replica.lag-query:SELECT 0}") String lagQuery,
+                                               @Value("${crm.datasource.replica.max-staleness:5s}") Duration maxStaleness,
+                                               MeterRegistry registry) {
+        return new ReplicaLagMonitor(replica, lagQuery, maxStaleness, registry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaLagMonitor::isReplicaUsable);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Target.PRIMARY, primary,
+                ReplicaRoutingDataSource.Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // static: пост-процессор создаётся раньше остальных бинов конфигурации
+    @Bean
+    public static BeanPostProcessor replicaCacheModePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof LocalContainerEntityManagerFactoryBean entityManagerFactory) {
+                    entityManagerFactory.setJpaDialect(new ReplicaCacheModeJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${crm.datasource.replica.max-staleness:5s}") Duration maxStaleness) {
+        return new ReadYourWritesFilter(maxStaleness);
+    }
+}
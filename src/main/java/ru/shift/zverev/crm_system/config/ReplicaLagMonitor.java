@@ -0,0 +1,64 @@
+package ru.shift.zverev.crm_system.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+
+// Периодически измеряет отставание реплики (crm.datasource.replica.lag-query возвращает секунды).
+// Пока отставание больше crm.datasource.replica.max-staleness или реплика не отвечает, чтение идёт в основную базу.
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxStaleness, MeterRegistry registry) {
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxStaleness.toMillis() / 1000.0;
+        Gauge.builder("crm.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .baseUnit("seconds")
+                .description("Replica lag; NaN while the replica is unavailable")
+                .register(registry);
+        // первая проверка синхронно: до неё реплика считается недоступной
+        check();
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${crm.datasource.replica.lag-check-interval:1s}",
+            initialDelayString = "${crm.datasource.replica.lag-check-interval:1s}")
+    public void check() {
+        boolean usable;
+        try {
+            Double lag = replica.queryForObject(lagQuery, Double.class);
+            lagSeconds = lag != null ? lag : 0;
+            usable = lagSeconds <= maxLagSeconds;
+        } catch (DataAccessException e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (replicaUsable) {
+                log.warn("Replica is unavailable: {}", e.getMessage());
+            }
+        }
+        if (usable != replicaUsable) {
+            log.info("Read-only transactions now go to the {} (replica lag {}s, max {}s)",
+                    usable ? "replica" : "primary", lagSeconds, maxLagSeconds);
+        }
+        replicaUsable = usable;
+    }
+}
@@ -0,0 +1,46 @@
+package ru.shift.zverev.crm_system.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.BooleanSupplier;
+
+
+// Транзакции readOnly читают из реплики, всё остальное (записи, вызовы вне транзакции) идёт в основную базу.
+// Работает только за LazyConnectionDataSourceProxy: соединение берётся при первом SQL, когда признак readOnly
+// уже выставлен. Реплика пропускается, если она отстала (ReplicaLagMonitor) или клиент недавно писал сам.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    // выставляется ReadYourWritesFilter на время запроса клиента, который недавно что-то записал
+    private static final ThreadLocal<Boolean> primaryRequired = new ThreadLocal<>();
+
+    private final BooleanSupplier replicaUsable;
+
+    public ReplicaRoutingDataSource(BooleanSupplier replicaUsable) {
+        this.replicaUsable = replicaUsable;
+    }
+
+    static void requirePrimary() {
+        primaryRequired.set(Boolean.TRUE);
+    }
+
+    static void reset() {
+        primaryRequired.remove();
+    }
+
+    static boolean isPrimaryRequired() {
+        return primaryRequired.get() != null;
+    }
+
+    @Override
+    protected Target determineCurrentLookupKey() {
+        boolean replica = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !isPrimaryRequired()
+                && replicaUsable.getAsBoolean();
+        return replica ? Target.REPLICA : Target.PRIMARY;
+    }
+}
@@ -0,0 +1,166 @@
+package ru.shift.zverev.crm_system.config;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.metamodel.model.domain.NavigableRole;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+import org.springframework.stereotype.Component;
+
+
+// Считает SQL-операторы, загрузки сущностей, подгрузки коллекций и обращения к кэшу второго уровня и кэшу запросов
+// Hibernate в текущем HTTP-запросе (окно задаёт StatementCountFilter).
+// Вне запроса (старт, планировщик, генератор данных) счётчика нет и вызовы ничего не делают.
+// Регистрируется в Hibernate через HibernateStatisticsConfig; коллекции и кэш считаются через статистику Hibernate,
+// поэтому только при hibernate.generate_statistics=true.
+@Component
+public class RequestStatementCounter implements StatementInspector, PostLoadEventListener, StatisticsFactory {
+
+    public static final class Counts {
+        private long statements;
+        private long entityLoads;
+        private long collectionFetches;
+        private long secondLevelCacheHits;
+        private long secondLevelCacheMisses;
+        private long queryCacheHits;
+        private long queryCacheMisses;
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getEntityLoads() {
+            return entityLoads;
+        }
+
+        public long getCollectionFetches() {
+            return collectionFetches;
+        }
+
+        public long getSecondLevelCacheHits() {
+            return secondLevelCacheHits;
+        }
+
+        public long getSecondLevelCacheMisses() {
+            return secondLevelCacheMisses;
+        }
+
+        public long getQueryCacheHits() {
+            return queryCacheHits;
+        }
+
+        public long getQueryCacheMisses() {
+            return queryCacheMisses;
+        }
+    }
+
+    // накопленная статистика фабрики сессий, дополнительно отмечающая события в счётчике текущего запроса
+    private final class RequestStatistics extends StatisticsImpl {
+
+        RequestStatistics(SessionFactoryImplementor sessionFactory) {
+            super(sessionFactory);
+        }
+
+        @Override
+        public void fetchCollection(String role) {
+            super.fetchCollection(role);
+            Counts counts = current.get();
+            if (counts != null) {
+                counts.collectionFetches++;
+            }
+        }
+
+        @Override
+        public void entityCacheHit(NavigableRole entityName, String regionName) {
+            super.entityCacheHit(entityName, regionName);
+            secondLevelCacheHit();
+        }
+
+        @Override
+        public void entityCacheMiss(NavigableRole entityName, String regionName) {
+            super.entityCacheMiss(entityName, regionName);
+            secondLevelCacheMiss();
+        }
+
+        @Override
+        public void collectionCacheHit(NavigableRole collectionRole, String regionName) {
+            super.collectionCacheHit(collectionRole, regionName);
+            secondLevelCacheHit();
+        }
+
+        @Override
+        public void collectionCacheMiss(NavigableRole collectionRole, String regionName) {
+            super.collectionCacheMiss(collectionRole, regionName);
+            secondLevelCacheMiss();
+        }
+
+        @Override
+        public void queryCacheHit(String hql, String regionName) {
+            super.queryCacheHit(hql, regionName);
+            Counts counts = current.get();
+            if (counts != null) {
+                counts.queryCacheHits++;
+            }
+        }
+
+        @Override
+        public void queryCacheMiss(String hql, String regionName) {
+            super.queryCacheMiss(hql, regionName);
+            Counts counts = current.get();
+            if (counts != null) {
+                counts.queryCacheMisses++;
+            }
+        }
+
+        private void secondLevelCacheHit() {
+            Counts counts = current.get();
+            if (counts != null) {
+                counts.secondLevelCacheHits++;
+            }
+        }
+
+        private void secondLevelCacheMiss() {
+            Counts counts = current.get();
+            if (counts != null) {
+                counts.secondLevelCacheMisses++;
+            }
+        }
+    }
+
+    private final ThreadLocal<Counts> current = new ThreadLocal<>();
+
+    public void begin() {
+        current.set(new Counts());
+    }
+
+    public Counts end() {
+        Counts counts = current.get();
+        current.remove();
+        return counts != null ? counts : new Counts();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Counts counts = current.get();
+        if (counts != null) {
+            counts.statements++;
+        }
+        return sql;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        Counts counts = current.get();
+        if (counts != null) {
+            counts.entityLoads++;
+        }
+    }
+
+    @Override
+    public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+        return new RequestStatistics(sessionFactory);
+    }
+}
@@ -0,0 +1,54 @@
+package ru.shift.zverev.crm_system.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import ru.shift.zverev.crm_system.service.SalesRollupService;
+
+
+// Сверка дневного среза с transactions при старте (crm.rollup.verify-on-startup). Выполняется до запуска
+// веб-сервера: пересборка удаляет и заново вставляет весь срез и не должна пересекаться с записями через API.
+@Component
+@ConditionalOnProperty(name = "crm.rollup.verify-on-startup", havingValue = "true")
+public class SalesRollupStartupCheck implements SmartLifecycle {
+
+    // веб-сервер стартует в фазе SMART_LIFECYCLE_PHASE - 1024 (WebServerStartStopLifecycle)
+    static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupStartupCheck.class);
+
+    private final SalesRollupService salesRollupService;
+    private volatile boolean running;
+
+    @Autowired
+    public SalesRollupStartupCheck(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    @Override
+    public void start() {
+        long started = System.nanoTime();
+        salesRollupService.verifyOnStartup();
+        log.info("Daily sales rollup verified in {} ms", (System.nanoTime() - started) / 1_000_000);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,57 @@
+package ru.shift.zverev.crm_system.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+// Пропускает только каждое rate-е сообщение уровня ниже WARN от заданных логгеров (и их потомков),
+// остальные отбрасываются до создания события. Подключается в logback-spring.xml (профиль async-logging)
+// для org.hibernate.SQL: в логе остаётся выборка запросов, медленные пишет отдельно org.hibernate.SQL_SLOW.
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final List<String> loggerNames = new ArrayList<>();
+    private final AtomicLong counter = new AtomicLong();
+    private int rate = 100;
+
+    public void addLoggerName(String loggerName) {
+        loggerNames.add(loggerName);
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    @Override
+    public void start() {
+        if (rate < 1) {
+            addError("rate must be positive");
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format == null - проверка isDebugEnabled(): её не считаем, иначе каждое сообщение учитывалось бы дважды
+        if (!isStarted() || format == null || level.isGreaterOrEqual(Level.WARN) || !matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean matches(String name) {
+        for (String loggerName : loggerNames) {
+            if (name.equals(loggerName) || name.startsWith(loggerName + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
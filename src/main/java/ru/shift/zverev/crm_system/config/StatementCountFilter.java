@@ -0,0 +1,102 @@
+package ru.shift.zverev.crm_system.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+// Детектор N+1: считает SQL каждого запроса и помечает запросы, где операторов больше порога.
+// Вместе с операторами в лог попадают загрузки сущностей, подгрузки коллекций и попадания/промахи кэшей.
+// Помеченные запросы пишутся в лог (WARN) и в последние RECENT_LIMIT записей для /actuator/hibernate.
+@Component
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementCountFilter.class);
+    private static final int RECENT_LIMIT = 50;
+
+    public record FlaggedRequest(LocalDateTime time, String request, long statements, long entityLoads,
+                                 long collectionFetches, long secondLevelCacheHits, long secondLevelCacheMisses,
+                                 long queryCacheHits, long queryCacheMisses) {}
+
+    private final RequestStatementCounter counter;
+    private final int threshold;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong flagged = new AtomicLong();
+    private final AtomicLong maxStatements = new AtomicLong();
+    private final ArrayBlockingQueue<FlaggedRequest> recent = new ArrayBlockingQueue<>(RECENT_LIMIT);
+
+    @Autowired
+    public StatementCountFilter(RequestStatementCounter counter,
+                                @Value("${crm.hibernate.request-statement-threshold:10}") int threshold) {
+        this.counter = counter;
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        counter.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestStatementCounter.Counts counts = counter.end();
+            requests.incrementAndGet();
+            maxStatements.accumulateAndGet(counts.getStatements(), Math::max);
+            if (counts.getStatements() > threshold) {
+                flag(request, counts);
+            }
+        }
+    }
+
+    private void flag(HttpServletRequest request, RequestStatementCounter.Counts counts) {
+        String query = request.getQueryString();
+        String target = request.getMethod() + " " + request.getRequestURI() + (query != null ? "?" + query : "");
+        flagged.incrementAndGet();
+        log.warn("Possible N+1: {} executed {} SQL statements, loaded {} entities, fetched {} collections, "
+                        + "second-level cache {} hits / {} misses, query cache {} hits / {} misses (threshold {})",
+                target, counts.getStatements(), counts.getEntityLoads(), counts.getCollectionFetches(),
+                counts.getSecondLevelCacheHits(), counts.getSecondLevelCacheMisses(),
+                counts.getQueryCacheHits(), counts.getQueryCacheMisses(), threshold);
+        FlaggedRequest entry = new FlaggedRequest(LocalDateTime.now(), target, counts.getStatements(),
+                counts.getEntityLoads(), counts.getCollectionFetches(),
+                counts.getSecondLevelCacheHits(), counts.getSecondLevelCacheMisses(),
+                counts.getQueryCacheHits(), counts.getQueryCacheMisses());
+        while (!recent.offer(entry)) {
+            recent.poll();
+        }
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getFlaggedCount() {
+        return flagged.get();
+    }
+
+    public long getMaxStatements() {
+        return maxStatements.get();
+    }
+
+    public List<FlaggedRequest> getRecentFlagged() {
+        return new ArrayList<>(recent);
+    }
+}
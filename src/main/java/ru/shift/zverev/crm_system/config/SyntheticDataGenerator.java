@@ -0,0 +1,218 @@
+package ru.shift.zverev.crm_system.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.shift.zverev.crm_system.model.Seller;
+import ru.shift.zverev.crm_system.model.Transaction;
+import ru.shift.zverev.crm_system.repository.SellerRepository;
+import ru.shift.zverev.crm_system.service.SalesRollupService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+// Заполняет пустую базу синтетическими продавцами и транзакциями (профиль generate, входит в группу h2).
+// Вставка идёт через StatelessSession JDBC-батчами в несколько потоков, каждая порция - своя транзакция БД.
+// Срез seller_daily_sales пересчитывается один раз в конце. Генерация идёт до запуска веб-сервера
+// (и до сверки среза SalesRollupStartupCheck): пересборка среза не должна пересекаться с записями через API.
+@Component
+@Profile("generate")
+public class SyntheticDataGenerator implements SmartLifecycle {
+
+    static final int PHASE = SalesRollupStartupCheck.PHASE - 1;
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    // строк в одной транзакции БД; от него зависит разбиение seed, поэтому размер не настраивается
+    static final int CHUNK_SIZE = 50_000;
+    private static final int PROGRESS_STEPS = 20;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final SellerRepository sellerRepository;
+    private final SalesRollupService salesRollupService;
+    private final ObjectProvider<TransactionPartitionScheduler> partitionScheduler;
+    private final int sellers;
+    private final long transactions;
+    private final int days;
+    private final long seed;
+    private final double zipfExponent;
+    private final double cardShare;
+    private final int threads;
+    private final int batchSize;
+    private volatile boolean running;
+
+    @Autowired
+    public SyntheticDataGenerator(EntityManagerFactory entityManagerFactory,
+                                  SellerRepository sellerRepository,
+                                  SalesRollupService salesRollupService,
+                                  ObjectProvider<TransactionPartitionScheduler> partitionScheduler,
+                                  @Value("${crm.generator.sellers:100}") int sellers,
+                                  @Value("${crm.generator.transactions:10000}") long transactions,
+                                  @Value("${crm.generator.days:90}") int days,
+                                  @Value("${crm.generator.seed:42}") long seed,
+                                  @Value("${crm.generator.zipf-exponent:1.1}") double zipfExponent,
+                                  @Value("${crm.generator.card-share:0.7}") double cardShare,
+                                  @Value("${crm.generator.threads:4}") int threads,
+                                  @Value("${crm.generator.batch-size:1000}") int batchSize) {
+        if (transactions < 0) {
+            throw new IllegalArgumentException("Transactions count must not be negative");
+        }
+        if (threads < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Threads and batch size must be positive");
+        }
+        this.entityManagerFactory = entityManagerFactory;
+        this.sellerRepository = sellerRepository;
+        this.salesRollupService = salesRollupService;
+        this.partitionScheduler = partitionScheduler;
+        this.sellers = sellers;
+        this.transactions = transactions;
+        this.days = days;
+        this.seed = seed;
+        this.zipfExponent = zipfExponent;
+        this.cardShare = cardShare;
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void start() {
+        try {
+            generate();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Synthetic data generation interrupted", e);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void generate() throws InterruptedException {
+        if (sellerRepository.count() > 0) {
+            log.info("Database already contains sellers, synthetic data generation skipped");
+            return;
+        }
+
+        // данные - за последние days полных дней, сегодняшний день не заполняется
+        LocalDate today = LocalDate.now();
+        LocalDate firstDay = today.minusDays(days);
+        SyntheticSalesModel model = new SyntheticSalesModel(seed, sellers, zipfExponent, firstDay, days, cardShare);
+        partitionScheduler.ifAvailable(scheduler ->
+                scheduler.createPartitions(YearMonth.from(firstDay), YearMonth.from(today)));
+
+        long started = System.nanoTime();
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Seller[] sellerRefs = insertSellers(sessionFactory, model);
+        insertTransactions(sessionFactory, model, sellerRefs, started);
+        salesRollupService.rebuild();
+
+        log.info("Generated {} sellers and {} transactions ({} - {}, seed {}) in {}",
+                sellers, transactions, firstDay, today.minusDays(1), seed,
+                Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    private Seller[] insertSellers(SessionFactory sessionFactory, SyntheticSalesModel model) {
+        SplittableRandom random = model.random(-1);
+        Seller[] refs = new Seller[sellers];
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            org.hibernate.Transaction tx = session.beginTransaction();
+            for (int i = 0; i < sellers; i++) {
+                Seller seller = new Seller(String.format("Продавец %06d", i + 1), model.registrationDate(random));
+                seller.setContactInfo("seller" + (i + 1) + "@example.com");
+                session.insert(seller);
+                // для внешнего ключа транзакции достаточно id
+                refs[i] = new Seller(seller.getId(), null, null, null);
+            }
+            tx.commit();
+        }
+        return refs;
+    }
+
+    private void insertTransactions(SessionFactory sessionFactory, SyntheticSalesModel model,
+                                    Seller[] sellerRefs, long started) throws InterruptedException {
+        long chunks = (transactions + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        long progressStep = Math.max(1, transactions / PROGRESS_STEPS);
+        AtomicLong inserted = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                long chunkIndex = chunk;
+                int size = (int) Math.min(CHUNK_SIZE, transactions - chunk * CHUNK_SIZE);
+                futures.add(pool.submit(() -> {
+                    insertChunk(sessionFactory, model, sellerRefs, chunkIndex, size);
+                    long before = inserted.getAndAdd(size);
+                    if (before / progressStep != (before + size) / progressStep) {
+                        logProgress(before + size, started);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Synthetic transactions insert failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void insertChunk(SessionFactory sessionFactory, SyntheticSalesModel model,
+                             Seller[] sellerRefs, long chunk, int size) {
+        SplittableRandom random = model.random(chunk);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(batchSize);
+            org.hibernate.Transaction tx = session.beginTransaction();
+            try {
+                for (int i = 0; i < size; i++) {
+                    session.insert(new Transaction(sellerRefs[model.sellerIndex(random)], model.amount(random),
+                            model.paymentType(random), model.transactionDate(random)));
+                }
+                tx.commit();
+            } catch (RuntimeException e) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void logProgress(long done, long started) {
+        double seconds = Math.max((System.nanoTime() - started) / 1e9, 1e-3);
+        log.info("Inserted {}/{} transactions ({}%), {} rows/s",
+                done, transactions, done * 100 / transactions, Math.round(done / seconds));
+    }
+}
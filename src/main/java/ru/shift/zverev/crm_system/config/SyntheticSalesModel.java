@@ -0,0 +1,119 @@
+package ru.shift.zverev.crm_system.config;
+
+import ru.shift.zverev.crm_system.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+
+// Распределения синтетических продаж для SyntheticDataGenerator: популярность продавцов по закону Ципфа,
+// суточный профиль времени, логнормальные суммы и доля оплаты картой.
+// Каждая порция строк получает свой генератор из seed и номера порции, поэтому данные не зависят от числа потоков.
+final class SyntheticSalesModel {
+
+    // относительная активность по часам суток: ночью почти тихо, пики в обед и вечером
+    private static final int[] HOUR_WEIGHTS = {
+            2, 1, 1, 1, 1, 2, 4, 8, 12, 15, 17, 19,
+            22, 21, 18, 17, 18, 21, 24, 22, 17, 12, 7, 4
+    };
+    private static final double MEDIAN_AMOUNT_CENTS = 150_000;
+    private static final double AMOUNT_SIGMA = 0.9;
+    private static final long MIN_AMOUNT_CENTS = 100;
+    private static final long MAX_AMOUNT_CENTS = 100_000_000;
+    private static final int MAX_REGISTRATION_AGE_DAYS = 730;
+
+    private final long seed;
+    private final double[] sellerCdf;
+    private final int[] rankToSeller;
+    private final double[] hourCdf;
+    private final LocalDate firstDay;
+    private final int days;
+    private final double cardShare;
+
+    SyntheticSalesModel(long seed, int sellers, double zipfExponent, LocalDate firstDay, int days, double cardShare) {
+        if (sellers < 1) {
+            throw new IllegalArgumentException("Sellers count must be positive");
+        }
+        if (days < 1) {
+            throw new IllegalArgumentException("Days must be positive");
+        }
+        if (zipfExponent < 0) {
+            throw new IllegalArgumentException("Zipf exponent must not be negative");
+        }
+        if (cardShare < 0 || cardShare > 1) {
+            throw new IllegalArgumentException("Card share must be between 0 and 1");
+        }
+        this.seed = seed;
+        this.firstDay = firstDay;
+        this.days = days;
+        this.cardShare = cardShare;
+
+        double[] weights = new double[sellers];
+        for (int rank = 0; rank < sellers; rank++) {
+            weights[rank] = 1.0 / Math.pow(rank + 1, zipfExponent);
+        }
+        this.sellerCdf = cdf(weights);
+        this.hourCdf = cdf(Arrays.stream(HOUR_WEIGHTS).asDoubleStream().toArray());
+
+        // ранг популярности не совпадает с порядком вставки, иначе самые активные - всегда первые id
+        this.rankToSeller = new int[sellers];
+        for (int i = 0; i < sellers; i++) {
+            rankToSeller[i] = i;
+        }
+        SplittableRandom shuffle = new SplittableRandom(seed);
+        for (int i = sellers - 1; i > 0; i--) {
+            int j = shuffle.nextInt(i + 1);
+            int swap = rankToSeller[i];
+            rankToSeller[i] = rankToSeller[j];
+            rankToSeller[j] = swap;
+        }
+    }
+
+    SplittableRandom random(long chunk) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + chunk);
+    }
+
+    int sellerIndex(RandomGenerator random) {
+        return rankToSeller[sample(sellerCdf, random)];
+    }
+
+    LocalDateTime transactionDate(RandomGenerator random) {
+        LocalDate day = firstDay.plusDays(random.nextInt(days));
+        return day.atTime(sample(hourCdf, random), random.nextInt(60), random.nextInt(60));
+    }
+
+    BigDecimal amount(RandomGenerator random) {
+        long cents = Math.round(MEDIAN_AMOUNT_CENTS * Math.exp(AMOUNT_SIGMA * random.nextGaussian()));
+        return BigDecimal.valueOf(Math.clamp(cents, MIN_AMOUNT_CENTS, MAX_AMOUNT_CENTS), 2);
+    }
+
+    Transaction.PaymentType paymentType(RandomGenerator random) {
+        return random.nextDouble() < cardShare ? Transaction.PaymentType.CARD : Transaction.PaymentType.CASH;
+    }
+
+    LocalDateTime registrationDate(RandomGenerator random) {
+        return firstDay.minusDays(random.nextInt(MAX_REGISTRATION_AGE_DAYS)).atTime(random.nextInt(24), 0);
+    }
+
+    private static double[] cdf(double[] weights) {
+        double[] cdf = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < cdf.length; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, RandomGenerator random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(index >= 0 ? index + 1 : -index - 1, cdf.length - 1);
+    }
+}
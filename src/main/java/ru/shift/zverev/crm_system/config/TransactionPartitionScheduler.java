@@ -0,0 +1,59 @@
+package ru.shift.zverev.crm_system.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+
+// Заранее создаёт помесячные секции transactions (миграция V3 для PostgreSQL), чтобы новые строки
+// не попадали в секцию по умолчанию. В H2 таблица обычная, поэтому компонент работает только в профиле postgres.
+@Component
+@Profile("postgres")
+public class TransactionPartitionScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionPartitionScheduler.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final int monthsAhead;
+
+    @Autowired
+    public TransactionPartitionScheduler(JdbcTemplate jdbcTemplate,
+                                         @Value("${crm.partitions.months-ahead:3}") int monthsAhead) {
+        this(jdbcTemplate, Clock.systemDefaultZone(), monthsAhead);
+    }
+
+    TransactionPartitionScheduler(JdbcTemplate jdbcTemplate, Clock clock, int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${crm.partitions.cron:0 0 3 * * *}")
+    public void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now(clock);
+        createPartitions(current, current.plusMonths(monthsAhead));
+    }
+
+    // секции за прошлые месяцы нужны при загрузке данных задним числом (SyntheticDataGenerator)
+    public void createPartitions(YearMonth from, YearMonth to) {
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            LocalDate monthStart = month.atDay(1);
+            String partition = jdbcTemplate.queryForObject(
+                    "SELECT create_transactions_partition(?)", String.class, monthStart);
+            log.debug("Transactions partition {} is ready", partition);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ru.shift.zverev.crm_system.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.shift.zverev.crm_system.dto.AnalyticsJobDto;
+import ru.shift.zverev.crm_system.dto.AnalyticsJobRequest;
+import ru.shift.zverev.crm_system.service.AnalyticsJobServiceInterface;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/analytics/jobs")
+@CrossOrigin(origins = "*")
+public class AnalyticsJobController {
+
+    private final AnalyticsJobServiceInterface analyticsJobService;
+
+    @Autowired
+    public AnalyticsJobController(AnalyticsJobServiceInterface analyticsJobService) {
+        this.analyticsJobService = analyticsJobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<AnalyticsJobDto> submitJob(@Valid @RequestBody AnalyticsJobRequest request) {
+        AnalyticsJobDto job = analyticsJobService.submit(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/analytics/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<AnalyticsJobDto> getJob(@PathVariable String id) {
+        return analyticsJobService.getById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<AnalyticsJobDto> cancelJob(@PathVariable String id) {
+        return analyticsJobService.cancel(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -6,9 +6,18 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.shift.zverev.crm_system.cache.AnalyticsResultCache;
+import ru.shift.zverev.crm_system.cache.DataVersions;
+import ru.shift.zverev.crm_system.dto.CursorPage;
+import ru.shift.zverev.crm_system.dto.SalesMetric;
 import ru.shift.zverev.crm_system.dto.SellerDto;
+import ru.shift.zverev.crm_system.dto.SellerRankDto;
 import ru.shift.zverev.crm_system.dto.SellerRequest;
+import ru.shift.zverev.crm_system.dto.SellerSalesTotalDto;
 import ru.shift.zverev.crm_system.model.Seller;
+import ru.shift.zverev.crm_system.service.PageCursor;
+import ru.shift.zverev.crm_system.service.SellerService;
 import ru.shift.zverev.crm_system.service.SellerServiceInterface;
 
 import java.math.BigDecimal;
@@ -16,7 +25,6 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import org.antlr.v4.runtime.misc.Pair;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/sellers")
@@ -24,25 +32,38 @@ import java.util.stream.Collectors;
 public class SellerController {
 
     private final SellerServiceInterface sellerService;
+    private final DataVersions dataVersions;
+    private final AnalyticsResultCache analyticsResultCache;
 
     @Autowired
-    public SellerController(SellerServiceInterface sellerService) {
+    public SellerController(SellerServiceInterface sellerService, DataVersions dataVersions,
+                            AnalyticsResultCache analyticsResultCache) {
         this.sellerService = sellerService;
+        this.dataVersions = dataVersions;
+        this.analyticsResultCache = analyticsResultCache;
     }
 
+    // GET ниже проверяют параметры (неверный запрос - 400 и при совпавшем ETag), затем сверяют If-None-Match
+    // с версией данных: при совпадении сразу 304, без запроса к БД и JSON
     @GetMapping
-    public ResponseEntity<List<SellerDto>> getAllSellers() {
-        List<Seller> sellers = sellerService.getAll();
-        List<SellerDto> sellerDtos = sellers.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(sellerDtos);
+    public ResponseEntity<CursorPage<SellerDto>> getAllSellers(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        validatePage(after, limit);
+        if (request.checkNotModified(dataVersions.sellersTag())) {
+            return null;
+        }
+        return ResponseEntity.ok(sellerService.getPage(after, limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<SellerDto> getSellerById(@PathVariable Long id) {
+    public ResponseEntity<SellerDto> getSellerById(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(dataVersions.sellersTag())) {
+            return null;
+        }
         return sellerService.getById(id)
-                .map(seller -> ResponseEntity.ok(convertToDto(seller)))
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -68,44 +89,76 @@ public class SellerController {
 
     // Analytics endpoints
     @GetMapping("/analytics/most-productive")
-    public ResponseEntity<SellerDto> getMostProductiveSeller() {
+    public ResponseEntity<SellerDto> getMostProductiveSeller(WebRequest request) {
+        if (request.checkNotModified(dataVersions.analyticsTag())) {
+            return null;
+        }
         Seller seller = sellerService.getMostProductiveSellerOfAllTime();
         return seller != null ? ResponseEntity.ok(convertToDto(seller)) : ResponseEntity.notFound().build();
     }
 
     @GetMapping("/analytics/most-productive/{days}")
-    public ResponseEntity<SellerDto> getMostProductiveSellerByPeriod(@PathVariable int days) {
+    public ResponseEntity<SellerDto> getMostProductiveSellerByPeriod(@PathVariable int days, WebRequest request) {
+        // начало периода сдвигается вместе с интервалом округления окна (AnalyticsResultCache)
+        if (request.checkNotModified(dataVersions.analyticsTag(analyticsResultCache.quantize(LocalDateTime.now())))) {
+            return null;
+        }
         Seller seller = sellerService.getMostProductiveSellerByPeriod(days);
         return seller != null ? ResponseEntity.ok(convertToDto(seller)) : ResponseEntity.notFound().build();
     }
 
+    @GetMapping("/analytics/top")
+    public ResponseEntity<List<SellerRankDto>> getTopSellers(
+            @RequestParam(defaultValue = "10") int n,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "amount") String metric,
+            WebRequest request) {
+        SellerService.validateTopSellers(n, from, to);
+        SalesMetric salesMetric = SalesMetric.from(metric);
+        if (request.checkNotModified(dataVersions.analyticsTag())) {
+            return null;
+        }
+        return ResponseEntity.ok(sellerService.getTopSellers(n, from, to, salesMetric));
+    }
+
     @GetMapping("/analytics/low-performance")
-    public ResponseEntity<List<SellerDto>> getSellersWithLowPerformance(
+    public ResponseEntity<CursorPage<SellerSalesTotalDto>> getSellersWithLowPerformance(
             @RequestParam BigDecimal limit,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        
-        List<Seller> sellers;
-        if (startDate != null && endDate != null) {
-            sellers = sellerService.getSellersAmountLessThanAndPeriod(limit, startDate, endDate);
-        } else {
-            sellers = sellerService.getSellersAmountLessThan(limit);
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size,
+            WebRequest request) {
+        validatePage(after, size);
+        if (request.checkNotModified(dataVersions.analyticsTag())) {
+            return null;
         }
-        
-        List<SellerDto> sellerDtos = sellers.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(sellerDtos);
+        return ResponseEntity.ok(sellerService.getSellersAmountLessThan(limit, startDate, endDate, after, size));
     }
 
     @GetMapping("analytics/most-productive-time/{sellerId}/{days}")
-    public Pair<LocalDate, LocalDate> getMostProductiveTime(@PathVariable Long sellerId, @PathVariable Long days) {
-        Pair<LocalDate, LocalDate> dates = sellerService.getMostProductiveTimeById(sellerId, days);
+    public Pair<LocalDate, LocalDate> getMostProductiveTime(@PathVariable Long sellerId, @PathVariable Long days,
+                                                            @RequestParam(defaultValue = "count") String metric,
+                                                            WebRequest request) {
+        SellerService.validateWindowDays(days);
+        SalesMetric salesMetric = SalesMetric.from(metric);
+        if (request.checkNotModified(dataVersions.analyticsTag())) {
+            return null;
+        }
+        Pair<LocalDate, LocalDate> dates = sellerService.getMostProductiveTimeById(sellerId, days, salesMetric);
         return dates;
     }
 
 
 
+    private static void validatePage(String after, int size) {
+        PageCursor.validatePageSize(size);
+        if (after != null) {
+            PageCursor.decodeId(after);
+        }
+    }
+
     private SellerDto convertToDto(Seller seller) {
         return new SellerDto(
                 seller.getId(),
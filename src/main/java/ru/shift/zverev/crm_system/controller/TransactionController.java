@@ -1,25 +1,38 @@
 package ru.shift.zverev.crm_system.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
+import org.hibernate.Hibernate;
 import org.antlr.v4.runtime.misc.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.shift.zverev.crm_system.dto.CursorPage;
+import ru.shift.zverev.crm_system.dto.SalesStatisticsDto;
 import ru.shift.zverev.crm_system.dto.SellerDto;
+import ru.shift.zverev.crm_system.dto.SellerSalesSummaryDto;
+import ru.shift.zverev.crm_system.dto.TransactionBatchResponse;
 import ru.shift.zverev.crm_system.dto.TransactionDto;
 import ru.shift.zverev.crm_system.dto.TransactionRequest;
+import ru.shift.zverev.crm_system.model.Seller;
 import ru.shift.zverev.crm_system.model.Transaction;
 import ru.shift.zverev.crm_system.service.TransactionServiceInterface;
 import ru.shift.zverev.crm_system.service.SellerServiceInterface;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -28,26 +41,52 @@ public class TransactionController {
 
     private final TransactionServiceInterface transactionService;
     private final SellerServiceInterface sellerService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public TransactionController(TransactionServiceInterface transactionService, SellerServiceInterface sellerService) {
+    public TransactionController(TransactionServiceInterface transactionService, SellerServiceInterface sellerService,
+                                 ObjectMapper objectMapper) {
         this.transactionService = transactionService;
         this.sellerService = sellerService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public ResponseEntity<List<TransactionDto>> getAllTransactions() {
-        List<Transaction> transactions = transactionService.getAll();
-        List<TransactionDto> transactionDtos = transactions.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(transactionDtos);
+    public ResponseEntity<CursorPage<TransactionDto>> getAllTransactions(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(transactionService.getPage(after, limit));
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportTransactions() {
+        // без flush после каждой строки: буферизацию отдаём генератору и контейнеру;
+        // пустой разделитель корневых значений - иначе Jackson ставит пробел перед каждой строкой после первой
+        ObjectWriter writer = objectMapper.writerFor(TransactionDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                transactionService.exportAll(transaction -> {
+                    try {
+                        writer.writeValue(generator, transaction);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<TransactionDto> getTransactionById(@PathVariable Long id) {
         return transactionService.getById(id)
-                .map(transaction -> ResponseEntity.ok(convertToDto(transaction)))
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -59,6 +98,12 @@ public class TransactionController {
         return ResponseEntity.status(HttpStatus.CREATED).body(convertToDto(savedTransaction));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<TransactionBatchResponse> createTransactionsBatch(@RequestBody List<TransactionRequest> transactionRequests) {
+        TransactionBatchResponse response = transactionService.createBatch(transactionRequests);
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<TransactionDto> updateTransaction(@PathVariable Long id, @Valid @RequestBody TransactionRequest transactionRequest) {
         Transaction updatedTransaction = transactionService.update(id, convertToEntity(transactionRequest));
@@ -73,22 +118,15 @@ public class TransactionController {
 
     // Filter by seller
     @GetMapping("/seller/{sellerId}")
-    public ResponseEntity<List<TransactionDto>> getTransactionsBySeller(
+    public ResponseEntity<CursorPage<TransactionDto>> getTransactionsBySeller(
             @PathVariable Long sellerId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        
-        List<Transaction> transactions;
-        if (startDate != null && endDate != null) {
-            transactions = transactionService.getTransactionsBySellerIdAndPeriod(sellerId, startDate, endDate);
-        } else {
-            transactions = transactionService.getTransactionsBySellerId(sellerId);
-        }
-        
-        List<TransactionDto> transactionDtos = transactions.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(transactionDtos);
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        return ResponseEntity.ok(transactionService.getTransactionsPageBySellerId(
+                sellerId, startDate, endDate, after, limit));
     }
 
 
@@ -109,13 +147,17 @@ public class TransactionController {
         return ResponseEntity.ok(Map.of("totalAmount", totalAmount));
     }
 
+    @GetMapping("/analytics/summary/{sellerId}")
+    public ResponseEntity<SellerSalesSummaryDto> getSalesSummaryBySeller(@PathVariable Long sellerId) {
+        return ResponseEntity.ok(transactionService.getSalesSummaryBySellerId(sellerId));
+    }
+
     @GetMapping("/analytics/statistics")
-    public ResponseEntity<Map<String, BigDecimal>> getSalesStatistics(
+    public ResponseEntity<SalesStatisticsDto> getSalesStatistics(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
         
-        Map<String, BigDecimal> statistics = transactionService.getSalesStatisticsByPeriod(startDate, endDate);
-        return ResponseEntity.ok(statistics);
+        return ResponseEntity.ok(transactionService.getSalesStatisticsByPeriod(startDate, endDate));
     }
 
 
@@ -123,20 +165,28 @@ public class TransactionController {
 
 
     private TransactionDto convertToDto(Transaction transaction) {
+        Seller seller = transaction.getSeller();
         return new TransactionDto(
                 transaction.getId(),
-                transaction.getSeller().getId(),
-                transaction.getSeller().getName(),
+                seller.getId(),
+                sellerName(seller),
                 transaction.getAmount(),
                 transaction.getPaymentType().toString(),
                 transaction.getTransactionDate()
         );
     }
 
+    // после вставки продавец - неинициализированный прокси, имя берём из индекса, а не из БД
+    private String sellerName(Seller seller) {
+        if (Hibernate.isInitialized(seller)) {
+            return seller.getName();
+        }
+        return sellerService.getSellerName(seller.getId()).orElse(null);
+    }
+
     private Transaction convertToEntity(TransactionRequest transactionRequest) {
         Transaction transaction = new Transaction();
-        transaction.setSeller(sellerService.getById(transactionRequest.getSellerId())
-                .orElseThrow(() -> new IllegalArgumentException("Seller not found with id: " + transactionRequest.getSellerId())));
+        transaction.setSeller(sellerService.getReferenceById(transactionRequest.getSellerId()));
         transaction.setAmount(transactionRequest.getAmount());
         transaction.setPaymentType(Transaction.PaymentType.valueOf(transactionRequest.getPaymentType().toUpperCase()));
         return transaction;
@@ -0,0 +1,32 @@
+package ru.shift.zverev.crm_system.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+
+@Data
+public class AnalyticsJobDto {
+    private String id;
+    private String type;
+    private String status;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Object result;
+    private String error;
+
+    public AnalyticsJobDto() {}
+
+    public AnalyticsJobDto(String id, String type, String status, LocalDateTime submittedAt,
+                           LocalDateTime startedAt, LocalDateTime finishedAt, Object result, String error) {
+        this.id = id;
+        this.type = type;
+        this.status = status;
+        this.submittedAt = submittedAt;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.result = result;
+        this.error = error;
+    }
+}
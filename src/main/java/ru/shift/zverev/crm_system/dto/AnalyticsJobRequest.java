@@ -0,0 +1,22 @@
+package ru.shift.zverev.crm_system.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+
+// параметры - как у /api/transactions/analytics/statistics и /api/sellers/analytics/low-performance
+@Data
+public class AnalyticsJobRequest {
+    @NotNull(message = "report type is mandatory")
+    private String type;
+
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+
+    private BigDecimal limit;
+    private String after;
+    private int size = 50;
+}
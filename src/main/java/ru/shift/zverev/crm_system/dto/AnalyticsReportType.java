@@ -0,0 +1,21 @@
+package ru.shift.zverev.crm_system.dto;
+
+import java.util.Arrays;
+
+
+// отчёты, которые можно запустить фоновой задачей (POST /api/analytics/jobs); значение - как в URL endpoint
+public enum AnalyticsReportType {
+    STATISTICS,
+    LOW_PERFORMANCE;
+
+    public String value() {
+        return name().toLowerCase().replace('_', '-');
+    }
+
+    public static AnalyticsReportType from(String value) {
+        return Arrays.stream(values())
+                .filter(type -> type.value().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Invalid report type: " + value));
+    }
+}
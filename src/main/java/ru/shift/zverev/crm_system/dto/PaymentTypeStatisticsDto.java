@@ -0,0 +1,19 @@
+package ru.shift.zverev.crm_system.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+
+@Data
+public class PaymentTypeStatisticsDto {
+    private long transactionCount;
+    private BigDecimal totalAmount;
+
+    public PaymentTypeStatisticsDto() {}
+
+    public PaymentTypeStatisticsDto(long transactionCount, BigDecimal totalAmount) {
+        this.transactionCount = transactionCount;
+        this.totalAmount = totalAmount;
+    }
+}
@@ -0,0 +1,17 @@
+package ru.shift.zverev.crm_system.dto;
+
+import java.util.Arrays;
+
+
+// по чему ранжировать продажи в аналитике: количество транзакций или сумма
+public enum SalesMetric {
+    COUNT,
+    AMOUNT;
+
+    public static SalesMetric from(String value) {
+        return Arrays.stream(values())
+                .filter(metric -> metric.name().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Invalid metric: " + value));
+    }
+}
@@ -0,0 +1,39 @@
+package ru.shift.zverev.crm_system.dto;
+
+import lombok.Data;
+import ru.shift.zverev.crm_system.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+
+@Data
+public class SalesStatisticsDto {
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private BigDecimal totalSales;
+    private long transactionCount;
+    private long sellerCount;
+    private BigDecimal averageAmount;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private Map<Transaction.PaymentType, PaymentTypeStatisticsDto> byPaymentType;
+
+    public SalesStatisticsDto() {}
+
+    public SalesStatisticsDto(LocalDateTime startDate, LocalDateTime endDate, BigDecimal totalSales,
+                              long transactionCount, long sellerCount, BigDecimal averageAmount,
+                              BigDecimal minAmount, BigDecimal maxAmount,
+                              Map<Transaction.PaymentType, PaymentTypeStatisticsDto> byPaymentType) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.totalSales = totalSales;
+        this.transactionCount = transactionCount;
+        this.sellerCount = sellerCount;
+        this.averageAmount = averageAmount;
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+        this.byPaymentType = byPaymentType;
+    }
+}
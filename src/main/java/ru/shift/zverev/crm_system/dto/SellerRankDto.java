@@ -0,0 +1,31 @@
+package ru.shift.zverev.crm_system.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+
+@Data
+public class SellerRankDto {
+    private int rank;
+    private Long sellerId;
+    private String name;
+    private String contactInfo;
+    private LocalDateTime registrationDate;
+    private BigDecimal totalAmount;
+    private long transactionCount;
+
+    public SellerRankDto() {}
+
+    public SellerRankDto(int rank, Long sellerId, String name, String contactInfo, LocalDateTime registrationDate,
+                         BigDecimal totalAmount, long transactionCount) {
+        this.rank = rank;
+        this.sellerId = sellerId;
+        this.name = name;
+        this.contactInfo = contactInfo;
+        this.registrationDate = registrationDate;
+        this.totalAmount = totalAmount;
+        this.transactionCount = transactionCount;
+    }
+}
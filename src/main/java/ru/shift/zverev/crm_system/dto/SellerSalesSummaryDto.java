@@ -0,0 +1,29 @@
+package ru.shift.zverev.crm_system.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+
+@Data
+public class SellerSalesSummaryDto {
+    private Long sellerId;
+    private BigDecimal totalAmount;
+    private long transactionCount;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private LocalDateTime lastTransactionDate;
+
+    public SellerSalesSummaryDto() {}
+
+    public SellerSalesSummaryDto(Long sellerId, BigDecimal totalAmount, long transactionCount,
+                                 BigDecimal minAmount, BigDecimal maxAmount, LocalDateTime lastTransactionDate) {
+        this.sellerId = sellerId;
+        this.totalAmount = totalAmount;
+        this.transactionCount = transactionCount;
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+        this.lastTransactionDate = lastTransactionDate;
+    }
+}
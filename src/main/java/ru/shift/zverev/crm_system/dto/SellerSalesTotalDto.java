@@ -0,0 +1,27 @@
+package ru.shift.zverev.crm_system.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+
+@Data
+public class SellerSalesTotalDto {
+    private Long id;
+    private String name;
+    private String contactInfo;
+    private LocalDateTime registrationDate;
+    private BigDecimal totalAmount;
+
+    public SellerSalesTotalDto() {}
+
+    public SellerSalesTotalDto(Long id, String name, String contactInfo, LocalDateTime registrationDate,
+                               BigDecimal totalAmount) {
+        this.id = id;
+        this.name = name;
+        this.contactInfo = contactInfo;
+        this.registrationDate = registrationDate;
+        this.totalAmount = totalAmount;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.shift.zverev.crm_system.dto;
+
+import lombok.Data;
+
+
+@Data
+public class TransactionBatchItemResult {
+    public enum Status {
+        CREATED, REJECTED
+    }
+
+    private int index;
+    private Status status;
+    private Long id;
+    private String error;
+
+    public TransactionBatchItemResult() {}
+
+    public TransactionBatchItemResult(int index, Status status, Long id, String error) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.error = error;
+    }
+
+    public static TransactionBatchItemResult created(int index, Long id) {
+        return new TransactionBatchItemResult(index, Status.CREATED, id, null);
+    }
+
+    public static TransactionBatchItemResult rejected(int index, String error) {
+        return new TransactionBatchItemResult(index, Status.REJECTED, null, error);
+    }
+}
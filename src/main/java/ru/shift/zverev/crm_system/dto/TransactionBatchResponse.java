@@ -0,0 +1,23 @@
+package ru.shift.zverev.crm_system.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+
+@Data
+public class TransactionBatchResponse {
+    private int created;
+    private int rejected;
+    private List<TransactionBatchItemResult> results;
+
+    public TransactionBatchResponse() {}
+
+    public TransactionBatchResponse(List<TransactionBatchItemResult> results) {
+        this.results = results;
+        this.created = (int) results.stream()
+                .filter(result -> result.getStatus() == TransactionBatchItemResult.Status.CREATED)
+                .count();
+        this.rejected = results.size() - created;
+    }
+}
@@ -29,6 +29,12 @@ public class TransactionDto {
         this.transactionDate = transactionDate;
     }
 
+    // для конструкторных выражений JPQL: тип оплаты приходит из запроса как enum
+    public TransactionDto(Long id, Long sellerId, String sellerName, BigDecimal amount,
+                          Transaction.PaymentType paymentType, LocalDateTime transactionDate) {
+        this(id, sellerId, sellerName, amount, paymentType != null ? paymentType.name() : null, transactionDate);
+    }
+
 
 
 }
@@ -0,0 +1,33 @@
+package ru.shift.zverev.crm_system.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+
+// дневной срез продаж продавца по типу оплаты, поддерживается TransactionService в той же транзакции
+@Entity
+@Table(name = "seller_daily_sales")
+@Getter
+@Setter
+public class SellerDailySales {
+
+    @EmbeddedId
+    private SellerDailySalesId id;
+
+    @Column(name = "amount_sum", nullable = false)
+    private BigDecimal amountSum;
+
+    @Column(name = "tx_count", nullable = false)
+    private long txCount;
+
+    public SellerDailySales() {}
+
+    public SellerDailySales(SellerDailySalesId id, BigDecimal amountSum, long txCount) {
+        this.id = id;
+        this.amountSum = amountSum;
+        this.txCount = txCount;
+    }
+}
@@ -0,0 +1,38 @@
+package ru.shift.zverev.crm_system.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+
+@Embeddable
+@Getter
+@Setter
+@EqualsAndHashCode
+public class SellerDailySalesId implements Serializable {
+
+    @Column(name = "seller_id", nullable = false)
+    private Long sellerId;
+
+    @Column(name = "sales_day", nullable = false)
+    private LocalDate day;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_type", nullable = false, length = 20)
+    private Transaction.PaymentType paymentType;
+
+    public SellerDailySalesId() {}
+
+    public SellerDailySalesId(Long sellerId, LocalDate day, Transaction.PaymentType paymentType) {
+        this.sellerId = sellerId;
+        this.day = day;
+        this.paymentType = paymentType;
+    }
+}
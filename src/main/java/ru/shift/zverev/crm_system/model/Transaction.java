@@ -8,21 +8,31 @@ import lombok.Setter;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// схема задаётся миграциями Flyway, индексы здесь продублированы для наглядности (INCLUDE (amount) - только в миграции)
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_seller_date", columnList = "seller_id, transaction_date"),
+        @Index(name = "idx_transactions_date", columnList = "transaction_date")
+})
+// продавец грузится лениво; запросы, отдающие сущности наружу (open-in-view выключен), подгружают его этим графом
+@NamedEntityGraph(name = Transaction.WITH_SELLER, attributeNodes = @NamedAttributeNode("seller"))
 @Getter
 @Setter
 public class Transaction {
+    public static final String WITH_SELLER = "Transaction.withSeller";
+
     public enum PaymentType {
         CARD, CASH
     }
 
+    // sequence с pooled-аллокацией: IDENTITY отключает batch insert в Hibernate
     @Id
-    @GeneratedValue(strategy=GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Seller is mandatory")
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="seller_id", nullable = false, foreignKey = @ForeignKey(name = "fk_transaction_seller"))
     private Seller seller;
 
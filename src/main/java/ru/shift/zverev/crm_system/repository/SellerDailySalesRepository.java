@@ -0,0 +1,125 @@
+package ru.shift.zverev.crm_system.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.shift.zverev.crm_system.model.SellerDailySales;
+import ru.shift.zverev.crm_system.model.SellerDailySalesId;
+import ru.shift.zverev.crm_system.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+
+@Repository
+public interface SellerDailySalesRepository extends JpaRepository<SellerDailySales, SellerDailySalesId> {
+
+    // Итоги продавцов за период по плану SalesPeriodPlan одним запросом: неполный первый день и последний день
+    // из transactions, полные дни из среза. Пустые части передаются пустыми диапазонами.
+    // LIMIT применяется в БД, поля продавца подтягиваются тем же запросом.
+    String TOP_SELLERS = "SELECT s.id, s.name, s.contact_info, s.registration_date, p.total, p.tx_count " +
+            "FROM (SELECT u.seller_id, SUM(u.total) AS total, SUM(u.tx_count) AS tx_count FROM (" +
+            "SELECT seller_id, SUM(amount) AS total, COUNT(*) AS tx_count FROM transactions " +
+            "WHERE transaction_date >= :headStart AND transaction_date < :headEnd GROUP BY seller_id " +
+            "UNION ALL " +
+            "SELECT seller_id, SUM(amount_sum), SUM(tx_count) FROM seller_daily_sales " +
+            "WHERE sales_day BETWEEN :firstDay AND :lastDay GROUP BY seller_id " +
+            "UNION ALL " +
+            "SELECT seller_id, SUM(amount), COUNT(*) FROM transactions " +
+            "WHERE transaction_date BETWEEN :tailStart AND :end GROUP BY seller_id" +
+            ") u GROUP BY u.seller_id HAVING SUM(u.tx_count) > 0) p " +
+            "JOIN sellers s ON s.id = p.seller_id ";
+
+    @Query(value = TOP_SELLERS + "ORDER BY p.total DESC, s.id LIMIT :n", nativeQuery = true)
+    List<Object[]> findTopSellersByAmount(@Param("headStart") LocalDateTime headStart,
+                                          @Param("headEnd") LocalDateTime headEnd,
+                                          @Param("firstDay") LocalDate firstDay,
+                                          @Param("lastDay") LocalDate lastDay,
+                                          @Param("tailStart") LocalDateTime tailStart,
+                                          @Param("end") LocalDateTime end,
+                                          @Param("n") int n);
+
+    @Query(value = TOP_SELLERS + "ORDER BY p.tx_count DESC, s.id LIMIT :n", nativeQuery = true)
+    List<Object[]> findTopSellersByCount(@Param("headStart") LocalDateTime headStart,
+                                         @Param("headEnd") LocalDateTime headEnd,
+                                         @Param("firstDay") LocalDate firstDay,
+                                         @Param("lastDay") LocalDate lastDay,
+                                         @Param("tailStart") LocalDateTime tailStart,
+                                         @Param("end") LocalDateTime end,
+                                         @Param("n") int n);
+
+    // добавление к ячейке среза одним оператором: первая продажа в пустой ячейке из двух транзакций
+    // сразу не конфликтует по ключу, вторая ждёт строку первой и прибавляет к ней.
+    // День считает БД из времени транзакции, как rebuildFromTransactions: время передаётся с тем же
+    // преобразованием в hibernate.jdbc.time_zone, что и transaction_date, и дни совпадают при любой зоне JVM
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "seller_daily_sales"))
+    @Query(value = "INSERT INTO seller_daily_sales (seller_id, sales_day, payment_type, amount_sum, tx_count) " +
+            "VALUES (:sellerId, CAST(:transactionDate AS DATE), :paymentType, :amount, :count) " +
+            "ON CONFLICT (seller_id, sales_day, payment_type) DO UPDATE SET " +
+            "amount_sum = seller_daily_sales.amount_sum + EXCLUDED.amount_sum, " +
+            "tx_count = seller_daily_sales.tx_count + EXCLUDED.tx_count", nativeQuery = true)
+    int upsertPostgres(@Param("sellerId") Long sellerId,
+                       @Param("transactionDate") LocalDateTime transactionDate,
+                       @Param("paymentType") String paymentType,
+                       @Param("amount") BigDecimal amount,
+                       @Param("count") long count);
+
+    // в H2 нет ON CONFLICT, а MERGE выполняется как UPDATE + INSERT и при гонке падает по ключу:
+    // вызывать только под lockSeller
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "seller_daily_sales"))
+    @Query(value = "MERGE INTO seller_daily_sales d USING (VALUES (CAST(:sellerId AS BIGINT), CAST(:transactionDate AS DATE), " +
+            "CAST(:paymentType AS VARCHAR(20)), CAST(:amount AS NUMERIC(38, 2)), CAST(:count AS BIGINT))) " +
+            "s (seller_id, sales_day, payment_type, amount_sum, tx_count) " +
+            "ON d.seller_id = s.seller_id AND d.sales_day = s.sales_day AND d.payment_type = s.payment_type " +
+            "WHEN MATCHED THEN UPDATE SET amount_sum = d.amount_sum + s.amount_sum, tx_count = d.tx_count + s.tx_count " +
+            "WHEN NOT MATCHED THEN INSERT (seller_id, sales_day, payment_type, amount_sum, tx_count) " +
+            "VALUES (s.seller_id, s.sales_day, s.payment_type, s.amount_sum, s.tx_count)", nativeQuery = true)
+    int mergeH2(@Param("sellerId") Long sellerId,
+                @Param("transactionDate") LocalDateTime transactionDate,
+                @Param("paymentType") String paymentType,
+                @Param("amount") BigDecimal amount,
+                @Param("count") long count);
+
+    // блокировка строки продавца до конца транзакции: сериализует mergeH2 по продавцу
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sellers"))
+    @Query(value = "SELECT id FROM sellers WHERE id = :sellerId FOR UPDATE", nativeQuery = true)
+    Long lockSeller(@Param("sellerId") Long sellerId);
+
+    @Query("SELECT COALESCE(SUM(d.amountSum), 0) FROM SellerDailySales d " +
+            "WHERE d.id.sellerId = :sellerId AND d.id.day BETWEEN :firstDay AND :lastDay")
+    BigDecimal getTotalAmountBySellerIdAndDays(@Param("sellerId") Long sellerId,
+                                               @Param("firstDay") LocalDate firstDay,
+                                               @Param("lastDay") LocalDate lastDay);
+
+    @Query("SELECT d.id.day, SUM(d.txCount), SUM(d.amountSum) FROM SellerDailySales d " +
+            "WHERE d.id.sellerId = :sellerId " +
+            "GROUP BY d.id.day " +
+            "ORDER BY d.id.day")
+    List<Object[]> findDailyTotalsBySellerId(@Param("sellerId") Long sellerId);
+
+    @Query("SELECT COALESCE(SUM(d.txCount), 0) FROM SellerDailySales d")
+    long countRolledUpTransactions();
+
+    // нативным изменениям явно указана таблица: без этого Hibernate очищает все регионы кэша второго уровня
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "seller_daily_sales"))
+    @Query(value = "DELETE FROM seller_daily_sales", nativeQuery = true)
+    void deleteAllRows();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "seller_daily_sales"))
+    @Query(value = "INSERT INTO seller_daily_sales (seller_id, sales_day, payment_type, amount_sum, tx_count) " +
+            "SELECT seller_id, CAST(transaction_date AS DATE), payment_type, SUM(amount), COUNT(*) " +
+            "FROM transactions " +
+            "GROUP BY seller_id, CAST(transaction_date AS DATE), payment_type", nativeQuery = true)
+    int rebuildFromTransactions();
+}
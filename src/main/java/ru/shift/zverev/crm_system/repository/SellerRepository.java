@@ -1,28 +1,59 @@
 package ru.shift.zverev.crm_system.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.shift.zverev.crm_system.dto.SellerDto;
+import ru.shift.zverev.crm_system.dto.SellerSalesTotalDto;
 import ru.shift.zverev.crm_system.model.Seller;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 
 @Repository
 public interface SellerRepository extends JpaRepository<Seller, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Seller> findByName(String name);
     boolean existsByName(String name);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT s FROM Seller s WHERE s.registrationDate BETWEEN :start AND :end")
     List<Seller> findByRegistrationPeriod(@Param("start") LocalDateTime start,
                                           @Param("end") LocalDateTime end);
 
-    @Query("SELECT s FROM Seller s WHERE " +
-            "(SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.seller = s) < :minAmount")
-    List<Seller> findWithTotalSalesLessThan(@Param("minAmount") BigDecimal minAmount);
+    // условие на период стоит в ON, чтобы продавцы без продаж за период остались в выборке с итогом 0
+    @Query("SELECT new ru.shift.zverev.crm_system.dto.SellerSalesTotalDto(" +
+            "s.id, s.name, s.contactInfo, s.registrationDate, COALESCE(SUM(t.amount), 0)) FROM Seller s " +
+            "LEFT JOIN Transaction t ON t.seller = s AND t.transactionDate BETWEEN :start AND :end " +
+            "WHERE s.id > :afterId " +
+            "GROUP BY s.id, s.name, s.contactInfo, s.registrationDate " +
+            "HAVING COALESCE(SUM(t.amount), 0) < :maxAmount " +
+            "ORDER BY s.id")
+    List<SellerSalesTotalDto> findWithTotalSalesLessThan(@Param("maxAmount") BigDecimal maxAmount,
+                                                         @Param("start") LocalDateTime start,
+                                                         @Param("end") LocalDateTime end,
+                                                         @Param("afterId") Long afterId,
+                                                         Limit limit);
+
+    @Query("SELECT s.id, s.name FROM Seller s")
+    List<Object[]> findAllIdsAndNames();
+
+    @Query("SELECT s.id FROM Seller s WHERE s.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    String SELLER_DTO = "SELECT new ru.shift.zverev.crm_system.dto.SellerDto(" +
+            "s.id, s.name, s.contactInfo, s.registrationDate) FROM Seller s ";
+
+    @Query(SELLER_DTO + "WHERE s.id > :afterId ORDER BY s.id")
+    List<SellerDto> findPageAfterId(@Param("afterId") Long afterId, Limit limit);
 
 }
@@ -1,20 +1,35 @@
 package ru.shift.zverev.crm_system.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
+import ru.shift.zverev.crm_system.dto.TransactionDto;
 import ru.shift.zverev.crm_system.model.Transaction;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
+    // findById остаётся без графа: изменению и удалению хватает id продавца из прокси
+    @Override
+    @EntityGraph(Transaction.WITH_SELLER)
+    List<Transaction> findAll();
+
+    @EntityGraph(Transaction.WITH_SELLER)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Transaction> findBySellerId(Long id);
     Long countBySellerId(Long id);
 
@@ -29,6 +44,8 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     List<Object[]> findTopSellersByPeriod(@Param("start") LocalDateTime start,
                                           @Param("end") LocalDateTime end);
 
+    @EntityGraph(Transaction.WITH_SELLER)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT t FROM Transaction t WHERE t.seller.id = :sellerId AND t.transactionDate BETWEEN :start AND :end")
     List<Transaction> findBySellerIdAndDateRange(@Param("sellerId") Long sellerId,
                                                  @Param("start") LocalDateTime start,
@@ -40,7 +57,75 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
                                                   @Param("start") LocalDateTime start,
                                                   @Param("end") LocalDateTime end);
 
+    // полуинтервал [from, until) - для неполного первого дня периода, остальное берётся из seller_daily_sales
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t " +
+            "WHERE t.seller.id = :sellerId AND t.transactionDate >= :from AND t.transactionDate < :until")
+    BigDecimal getTotalAmountBySellerIdFromUntil(@Param("sellerId") Long sellerId,
+                                                 @Param("from") LocalDateTime from,
+                                                 @Param("until") LocalDateTime until);
+
+    @EntityGraph(Transaction.WITH_SELLER)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT t FROM Transaction t WHERE t.seller.id = :sellerId")
     List<Transaction> getAllTransactionsBySellerId(@Param("sellerId") Long sellerId);
 
+    // чтение для API сразу в TransactionDto: одна выборка с JOIN продавца, сущности не создаются
+    // и не попадают в persistence context
+    String TRANSACTION_DTO = "SELECT new ru.shift.zverev.crm_system.dto.TransactionDto(" +
+            "t.id, s.id, s.name, t.amount, t.paymentType, t.transactionDate) " +
+            "FROM Transaction t JOIN t.seller s ";
+
+    @Query(TRANSACTION_DTO + "WHERE t.id = :id")
+    Optional<TransactionDto> findDtoById(@Param("id") Long id);
+
+    @Query(TRANSACTION_DTO + "WHERE t.id > :afterId ORDER BY t.id")
+    List<TransactionDto> findPageAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    // явный диапазон по дате нужен для отсечения секций в PostgreSQL, условие с OR его не даёт
+    @Query(TRANSACTION_DTO + "WHERE s.id = :sellerId " +
+            "AND t.transactionDate >= :afterDate AND t.transactionDate <= :end " +
+            "AND (t.transactionDate > :afterDate OR t.id > :afterId) " +
+            "ORDER BY t.transactionDate, t.id")
+    List<TransactionDto> findPageBySellerIdAfter(@Param("sellerId") Long sellerId,
+                                                 @Param("afterDate") LocalDateTime afterDate,
+                                                 @Param("afterId") Long afterId,
+                                                 @Param("end") LocalDateTime end,
+                                                 Limit limit);
+
+    // без верхней границы: страницы продавца без конца периода, включая транзакции с датой позже now()
+    @Query(TRANSACTION_DTO + "WHERE s.id = :sellerId " +
+            "AND t.transactionDate >= :afterDate " +
+            "AND (t.transactionDate > :afterDate OR t.id > :afterId) " +
+            "ORDER BY t.transactionDate, t.id")
+    List<TransactionDto> findPageBySellerIdFrom(@Param("sellerId") Long sellerId,
+                                                @Param("afterDate") LocalDateTime afterDate,
+                                                @Param("afterId") Long afterId,
+                                                Limit limit);
+
+    @Query(TRANSACTION_DTO + "WHERE s.id = :sellerId ORDER BY t.transactionDate, t.id")
+    List<TransactionDto> findFirstPageBySellerId(@Param("sellerId") Long sellerId, Limit limit);
+
+    @Query("SELECT t.seller.id, COUNT(t), SUM(t.amount), MIN(t.amount), MAX(t.amount), MAX(t.transactionDate) " +
+            "FROM Transaction t GROUP BY t.seller.id")
+    List<Object[]> aggregateAllBySeller();
+
+    @Query("SELECT COUNT(t), SUM(t.amount), MIN(t.amount), MAX(t.amount), MAX(t.transactionDate) " +
+            "FROM Transaction t WHERE t.seller.id = :sellerId")
+    List<Object[]> aggregateBySellerId(@Param("sellerId") Long sellerId);
+
+    @Query("SELECT COUNT(t), COALESCE(SUM(t.amount), 0), COUNT(DISTINCT t.seller.id), MIN(t.amount), MAX(t.amount) " +
+            "FROM Transaction t WHERE t.transactionDate BETWEEN :start AND :end")
+    List<Object[]> aggregateStatisticsByPeriod(@Param("start") LocalDateTime start,
+                                               @Param("end") LocalDateTime end);
+
+    // строки [тип оплаты, количество, сумма] только для типов, встречающихся в периоде
+    @Query("SELECT t.paymentType, COUNT(t), SUM(t.amount) " +
+            "FROM Transaction t WHERE t.transactionDate BETWEEN :start AND :end GROUP BY t.paymentType")
+    List<Object[]> aggregateByPaymentTypeForPeriod(@Param("start") LocalDateTime start,
+                                                   @Param("end") LocalDateTime end);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(TRANSACTION_DTO + "ORDER BY t.id")
+    Stream<TransactionDto> streamAllOrderById();
+
 }
@@ -0,0 +1,113 @@
+package ru.shift.zverev.crm_system.service;
+
+import ru.shift.zverev.crm_system.dto.AnalyticsJobDto;
+import ru.shift.zverev.crm_system.dto.AnalyticsReportType;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+
+// Фоновая задача аналитики. Состояние неизменяемое и меняется одним compareAndSet,
+// поэтому отмена, начатая во время выполнения, не перетирается результатом (и наоборот).
+class AnalyticsJob {
+
+    enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private record State(Status status, LocalDateTime startedAt, LocalDateTime finishedAt, Object result, String error) {
+    }
+
+    private final String id;
+    private final AnalyticsReportType type;
+    private final LocalDateTime submittedAt;
+    private final AtomicReference<State> state = new AtomicReference<>(new State(Status.QUEUED, null, null, null, null));
+    private volatile Future<?> future;
+    private volatile Runnable queryCanceller;
+
+    AnalyticsJob(String id, AnalyticsReportType type, LocalDateTime submittedAt) {
+        this.id = id;
+        this.type = type;
+        this.submittedAt = submittedAt;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    Status getStatus() {
+        return state.get().status();
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    // вызывается в потоке задачи перед первым запросом отчёта
+    void setQueryCanceller(Runnable queryCanceller) {
+        this.queryCanceller = queryCanceller;
+        if (getStatus() == Status.CANCELLED) {
+            throw new CancellationException("Analytics job " + id + " cancelled");
+        }
+    }
+
+    void run(Supplier<?> report, Clock clock) {
+        State queued = state.get();
+        State running = new State(Status.RUNNING, LocalDateTime.now(clock), null, null, null);
+        if (queued.status() != Status.QUEUED || !state.compareAndSet(queued, running)) {
+            return;
+        }
+        State finished;
+        try {
+            Object result = report.get();
+            finished = new State(Status.SUCCEEDED, running.startedAt(), LocalDateTime.now(clock), result, null);
+        } catch (RuntimeException e) {
+            finished = new State(Status.FAILED, running.startedAt(), LocalDateTime.now(clock), null, e.getMessage());
+        }
+        // задачу отменили, пока шёл запрос: результат отбрасывается
+        state.compareAndSet(running, finished);
+    }
+
+    // идущий SQL-запрос прерывание потока не останавливает: его отменяет queryCanceller,
+    // а результат, если запрос всё же успел завершиться, не сохранится
+    boolean cancel(Clock clock) {
+        while (true) {
+            State current = state.get();
+            if (current.status().isFinished()) {
+                return false;
+            }
+            State cancelled = new State(Status.CANCELLED, current.startedAt(), LocalDateTime.now(clock), null, null);
+            if (state.compareAndSet(current, cancelled)) {
+                Future<?> running = future;
+                if (running != null) {
+                    running.cancel(true);
+                }
+                Runnable canceller = queryCanceller;
+                if (canceller != null) {
+                    canceller.run();
+                }
+                return true;
+            }
+        }
+    }
+
+    boolean isExpired(LocalDateTime now, Duration ttl) {
+        State current = state.get();
+        return current.status().isFinished() && !current.finishedAt().plus(ttl).isAfter(now);
+    }
+
+    AnalyticsJobDto toDto() {
+        State current = state.get();
+        return new AnalyticsJobDto(id, type.value(), current.status().name(), submittedAt,
+                current.startedAt(), current.finishedAt(), current.result(), current.error());
+    }
+}
@@ -0,0 +1,189 @@
+package ru.shift.zverev.crm_system.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.shift.zverev.crm_system.dto.AnalyticsJobDto;
+import ru.shift.zverev.crm_system.dto.AnalyticsJobRequest;
+import ru.shift.zverev.crm_system.dto.AnalyticsReportType;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+
+// Тяжёлые отчёты выполняются в отдельном ограниченном пуле: одновременно не больше crm.analytics.jobs.threads
+// запросов (и соединений с БД), остальные ждут в очереди, при полной очереди задача отклоняется.
+// Потоки Tomcat и остальная часть пула соединений остаются для обычных запросов.
+// Отчёт идёт в одной readOnly-транзакции, все его запросы - через одну сессию Hibernate: отмена задачи
+// останавливает идущий запрос (Session.cancelQuery(), в драйвере - Statement.cancel()) и освобождает поток.
+@Service
+public class AnalyticsJobService implements AnalyticsJobServiceInterface {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsJobService.class);
+
+    private final TransactionServiceInterface transactionService;
+    private final SellerServiceInterface sellerService;
+    private final TransactionOperations reportTransaction;
+    private final EntityManager entityManager;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+    private final Map<String, AnalyticsJob> jobs = new ConcurrentHashMap<>();
+    private final Duration resultTtl;
+    private final int maxRetainedJobs;
+    private final Clock clock;
+
+    @Autowired
+    public AnalyticsJobService(TransactionServiceInterface transactionService, SellerServiceInterface sellerService,
+                               PlatformTransactionManager transactionManager, EntityManager entityManager,
+                               MeterRegistry registry,
+                               @Value("${crm.analytics.jobs.threads:2}") int threads,
+                               @Value("${crm.analytics.jobs.queue-capacity:20}") int queueCapacity,
+                               @Value("${crm.analytics.jobs.result-ttl:10m}") Duration resultTtl,
+                               @Value("${crm.analytics.jobs.max-retained:1000}") int maxRetainedJobs) {
+        this(transactionService, sellerService, readOnlyTransaction(transactionManager), entityManager, registry,
+                threads, queueCapacity, resultTtl, maxRetainedJobs, Clock.systemDefaultZone());
+    }
+
+    AnalyticsJobService(TransactionServiceInterface transactionService, SellerServiceInterface sellerService,
+                        TransactionOperations reportTransaction, EntityManager entityManager,
+                        MeterRegistry registry, int threads, int queueCapacity, Duration resultTtl,
+                        int maxRetainedJobs, Clock clock) {
+        this.transactionService = transactionService;
+        this.sellerService = sellerService;
+        this.reportTransaction = reportTransaction;
+        this.entityManager = entityManager;
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("analytics-job-"));
+        this.executor = ExecutorServiceMetrics.monitor(registry, pool, "analytics.jobs");
+        this.resultTtl = resultTtl;
+        this.maxRetainedJobs = maxRetainedJobs;
+        this.clock = clock;
+    }
+
+    // параметры проверяются сразу: ошибка в запросе - 400 при отправке, а не упавшая задача
+    @Override
+    public AnalyticsJobDto submit(AnalyticsJobRequest request) {
+        AnalyticsReportType type = AnalyticsReportType.from(request.getType());
+        Supplier<?> report = prepareReport(type, request);
+
+        removeExpired();
+        if (jobs.size() >= maxRetainedJobs) {
+            throw new RejectedExecutionException("Too many analytics jobs, retry later");
+        }
+        AnalyticsJob job = new AnalyticsJob(UUID.randomUUID().toString(), type, LocalDateTime.now(clock));
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(executor.submit(() -> job.run(() -> runReport(job, report), clock)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new RejectedExecutionException("Analytics job queue is full, retry later", e);
+        }
+        log.info("Analytics job {} ({}) submitted, queued: {}", job.getId(), type.value(), pool.getQueue().size());
+        return job.toDto();
+    }
+
+    @Override
+    public Optional<AnalyticsJobDto> getById(String id) {
+        return findJob(id).map(AnalyticsJob::toDto);
+    }
+
+    @Override
+    public Optional<AnalyticsJobDto> cancel(String id) {
+        return findJob(id).map(job -> {
+            if (job.cancel(clock)) {
+                log.info("Analytics job {} cancelled", id);
+            }
+            return job.toDto();
+        });
+    }
+
+    // завершённые задачи с результатами хранятся crm.analytics.jobs.result-ttl
+    @Scheduled(fixedDelay = 60_000)
+    public void removeExpired() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        jobs.values().removeIf(job -> job.isExpired(now, resultTtl));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Object runReport(AnalyticsJob job, Supplier<?> report) {
+        return reportTransaction.execute(status -> {
+            job.setQueryCanceller(entityManager.unwrap(Session.class)::cancelQuery);
+            return report.get();
+        });
+    }
+
+    private static TransactionOperations readOnlyTransaction(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private Optional<AnalyticsJob> findJob(String id) {
+        AnalyticsJob job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        if (job.isExpired(LocalDateTime.now(clock), resultTtl)) {
+            jobs.remove(id, job);
+            return Optional.empty();
+        }
+        return Optional.of(job);
+    }
+
+    private Supplier<?> prepareReport(AnalyticsReportType type, AnalyticsJobRequest request) {
+        LocalDateTime startDate = request.getStartDate();
+        LocalDateTime endDate = request.getEndDate();
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        return switch (type) {
+            case STATISTICS -> {
+                if (startDate == null || endDate == null) {
+                    throw new IllegalArgumentException("startDate and endDate are mandatory");
+                }
+                yield () -> transactionService.getSalesStatisticsByPeriod(startDate, endDate);
+            }
+            case LOW_PERFORMANCE -> {
+                BigDecimal limit = request.getLimit();
+                String after = request.getAfter();
+                int size = request.getSize();
+                if (limit == null) {
+                    throw new IllegalArgumentException("limit is mandatory");
+                }
+                PageCursor.validatePageSize(size);
+                if (after != null) {
+                    PageCursor.decodeId(after);
+                }
+                yield () -> sellerService.getSellersAmountLessThan(limit, startDate, endDate, after, size);
+            }
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package ru.shift.zverev.crm_system.service;
+
+import ru.shift.zverev.crm_system.dto.AnalyticsJobDto;
+import ru.shift.zverev.crm_system.dto.AnalyticsJobRequest;
+
+import java.util.Optional;
+
+
+public interface AnalyticsJobServiceInterface {
+    AnalyticsJobDto submit(AnalyticsJobRequest request);
+    Optional<AnalyticsJobDto> getById(String id);
+    Optional<AnalyticsJobDto> cancel(String id);
+}
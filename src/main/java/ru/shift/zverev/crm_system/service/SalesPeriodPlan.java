@@ -0,0 +1,37 @@
+package ru.shift.zverev.crm_system.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+
+// Разбивка периода [start, end] для аналитики: полные дни берутся из seller_daily_sales,
+// неполный первый день [start, firstDay) и последний день [tailStart, end] - из transactions.
+// День end всегда читается из сырых строк, поэтому "сегодня" в скользящих окнах всегда точное.
+public record SalesPeriodPlan(LocalDateTime start, LocalDate firstDay, LocalDate lastDay,
+                              LocalDateTime tailStart, LocalDateTime end) {
+
+    public static SalesPeriodPlan of(LocalDateTime start, LocalDateTime end) {
+        LocalDate firstDay = start.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? start.toLocalDate()
+                : start.toLocalDate().plusDays(1);
+        LocalDate lastDay = end.toLocalDate().minusDays(1);
+
+        if (firstDay.isAfter(lastDay)) {
+            return new SalesPeriodPlan(start, null, null, start, end);
+        }
+        return new SalesPeriodPlan(start, firstDay, lastDay, lastDay.plusDays(1).atStartOfDay(), end);
+    }
+
+    public boolean hasRollupDays() {
+        return firstDay != null;
+    }
+
+    public boolean hasHead() {
+        return hasRollupDays() && start.isBefore(firstDay.atStartOfDay());
+    }
+
+    public LocalDateTime headEnd() {
+        return firstDay.atStartOfDay();
+    }
+}
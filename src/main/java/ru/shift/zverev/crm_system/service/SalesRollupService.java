@@ -0,0 +1,109 @@
+package ru.shift.zverev.crm_system.service;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.shift.zverev.crm_system.dto.SalesMetric;
+import ru.shift.zverev.crm_system.dto.SellerRankDto;
+import ru.shift.zverev.crm_system.model.Transaction;
+import ru.shift.zverev.crm_system.repository.SellerDailySalesRepository;
+import ru.shift.zverev.crm_system.repository.TransactionRepository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+
+@Service
+public class SalesRollupService {
+
+    private final SellerDailySalesRepository dailySalesRepository;
+    private final TransactionRepository transactionRepository;
+    private final boolean postgres;
+
+    @Autowired
+    public SalesRollupService(SellerDailySalesRepository dailySalesRepository,
+                              TransactionRepository transactionRepository,
+                              EntityManager entityManager) {
+        this.dailySalesRepository = dailySalesRepository;
+        this.transactionRepository = transactionRepository;
+        this.postgres = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    // вызывается внутри транзакции записи: сырая строка и срез коммитятся вместе
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long sellerId, LocalDateTime transactionDate, Transaction.PaymentType paymentType,
+                       BigDecimal amount, long count) {
+        if (postgres) {
+            dailySalesRepository.upsertPostgres(sellerId, transactionDate, paymentType.name(), amount, count);
+        } else {
+            dailySalesRepository.lockSeller(sellerId);
+            dailySalesRepository.mergeH2(sellerId, transactionDate, paymentType.name(), amount, count);
+        }
+    }
+
+    // срез мог не застать строки, вставленные в обход сервиса (старые данные, загрузка из SQL);
+    // оба count - полный проход по таблицам, поэтому проверка включается явно (SalesRollupStartupCheck)
+    @Transactional
+    public void verifyOnStartup() {
+        if (dailySalesRepository.countRolledUpTransactions() != transactionRepository.count()) {
+            rebuild();
+        }
+    }
+
+    @Transactional
+    public void rebuild() {
+        dailySalesRepository.deleteAllRows();
+        dailySalesRepository.rebuildFromTransactions();
+    }
+
+    public BigDecimal getTotalAmountBySellerIdAndPeriod(Long sellerId, LocalDateTime start, LocalDateTime end) {
+        SalesPeriodPlan plan = SalesPeriodPlan.of(start, end);
+        BigDecimal total = transactionRepository.getTotalAmountBySellerIdAndPeriod(sellerId, plan.tailStart(), plan.end());
+        if (plan.hasRollupDays()) {
+            total = total.add(dailySalesRepository.getTotalAmountBySellerIdAndDays(
+                    sellerId, plan.firstDay(), plan.lastDay()));
+        }
+        if (plan.hasHead()) {
+            total = total.add(transactionRepository.getTotalAmountBySellerIdFromUntil(
+                    sellerId, plan.start(), plan.headEnd()));
+        }
+        return total;
+    }
+
+    public List<SellerRankDto> getTopSellers(LocalDateTime start, LocalDateTime end, int n, SalesMetric metric) {
+        SalesPeriodPlan plan = SalesPeriodPlan.of(start, end);
+        LocalDateTime headEnd = plan.hasHead() ? plan.headEnd() : plan.start();
+        LocalDate firstDay = plan.hasRollupDays() ? plan.firstDay() : plan.end().toLocalDate().plusDays(1);
+        LocalDate lastDay = plan.hasRollupDays() ? plan.lastDay() : plan.end().toLocalDate();
+
+        List<Object[]> rows = metric == SalesMetric.COUNT
+                ? dailySalesRepository.findTopSellersByCount(plan.start(), headEnd, firstDay, lastDay,
+                        plan.tailStart(), plan.end(), n)
+                : dailySalesRepository.findTopSellersByAmount(plan.start(), headEnd, firstDay, lastDay,
+                        plan.tailStart(), plan.end(), n);
+
+        List<SellerRankDto> ranking = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ranking.add(new SellerRankDto(ranking.size() + 1, ((Number) row[0]).longValue(), (String) row[1],
+                    (String) row[2], toLocalDateTime(row[3]), (BigDecimal) row[4], ((Number) row[5]).longValue()));
+        }
+        return ranking;
+    }
+
+    public List<Object[]> getDailyTotalsBySellerId(Long sellerId) {
+        return dailySalesRepository.findDailyTotalsBySellerId(sellerId);
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,83 @@
+package ru.shift.zverev.crm_system.service;
+
+import org.antlr.v4.runtime.misc.Pair;
+import ru.shift.zverev.crm_system.dto.SalesMetric;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+
+// Дневные итоги продавца в примитивных массивах (память - O(дней с продажами)) и поиск лучшего окна
+// из windowDays подряд идущих календарных дней. Дни без продаж в окно входят, но не хранятся.
+public final class SalesWindow {
+
+    private final long[] epochDays;
+    private final long[] counts;
+    private final long[] amountCents;
+    private final int size;
+
+    public SalesWindow(long[] epochDays, long[] counts, long[] amountCents, int size) {
+        this.epochDays = epochDays;
+        this.counts = counts;
+        this.amountCents = amountCents;
+        this.size = size;
+    }
+
+    // строки (day, count, sum), отсортированные по дню
+    public static SalesWindow fromDailyTotals(List<Object[]> rows) {
+        long[] epochDays = new long[rows.size()];
+        long[] counts = new long[rows.size()];
+        long[] amountCents = new long[rows.size()];
+        int size = 0;
+        for (Object[] row : rows) {
+            long count = ((Number) row[1]).longValue();
+            if (count <= 0) {
+                continue;
+            }
+            epochDays[size] = ((LocalDate) row[0]).toEpochDay();
+            counts[size] = count;
+            amountCents[size] = ((BigDecimal) row[2]).movePointRight(2).longValue();
+            size++;
+        }
+        return new SalesWindow(epochDays, counts, amountCents, size);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public Pair<LocalDate, LocalDate> best(long windowDays, SalesMetric metric) {
+        if (windowDays < 1) {
+            throw new IllegalArgumentException("Window must be at least 1 day");
+        }
+        int start = bestStart(epochDays, metric == SalesMetric.AMOUNT ? amountCents : counts, size, windowDays);
+        if (start < 0) {
+            return null;
+        }
+        LocalDate startDate = LocalDate.ofEpochDay(epochDays[start]);
+        return new Pair<>(startDate, startDate.plusDays(windowDays - 1));
+    }
+
+    // Лучшее окно всегда можно сдвинуть так, чтобы оно начиналось в день с продажами,
+    // поэтому кандидаты - только такие дни; правая граница двигается вместе с левой (два указателя).
+    // При равенстве остаётся самое раннее окно.
+    public static int bestStart(long[] epochDays, long[] weights, int size, long windowDays) {
+        int bestStart = -1;
+        long bestSum = Long.MIN_VALUE;
+        long sum = 0;
+        int end = 0;
+        for (int start = 0; start < size; start++) {
+            long windowEnd = epochDays[start] + windowDays;
+            while (end < size && epochDays[end] < windowEnd) {
+                sum += weights[end++];
+            }
+            if (sum > bestSum) {
+                bestSum = sum;
+                bestStart = start;
+            }
+            sum -= weights[start];
+        }
+        return bestStart;
+    }
+}
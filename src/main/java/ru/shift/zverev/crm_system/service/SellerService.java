@@ -5,8 +5,17 @@ import lombok.val;
 import org.antlr.v4.runtime.misc.Pair;
 import org.hibernate.dialect.function.array.H2ArraySetFunction;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.shift.zverev.crm_system.cache.AnalyticsResultCache;
+import ru.shift.zverev.crm_system.cache.DataVersions;
+import ru.shift.zverev.crm_system.cache.SellerIndex;
+import ru.shift.zverev.crm_system.dto.CursorPage;
+import ru.shift.zverev.crm_system.dto.SalesMetric;
 import ru.shift.zverev.crm_system.dto.SellerDto;
+import ru.shift.zverev.crm_system.dto.SellerRankDto;
+import ru.shift.zverev.crm_system.dto.SellerSalesTotalDto;
 import ru.shift.zverev.crm_system.model.Seller;
 import ru.shift.zverev.crm_system.model.Transaction;
 import ru.shift.zverev.crm_system.repository.SellerRepository;
@@ -21,23 +30,68 @@ import java.util.*;
 @Service
 public class SellerService implements SellerServiceInterface{
 
+    public static final int MAX_TOP_SELLERS = 1000;
+    public static final long MAX_WINDOW_DAYS = 36_600;
+
+    private static final LocalDateTime MIN_TRANSACTION_DATE = LocalDateTime.of(1900, 1, 1, 0, 0);
+
     private final SellerRepository sellerRepository;
     private final TransactionRepository transactionRepository;
+    private final SellerIndex sellerIndex;
+    private final SalesRollupService salesRollupService;
+    private final DataVersions dataVersions;
+    private final AnalyticsResultCache analyticsResultCache;
 
     @Autowired
-    public SellerService(SellerRepository sellerRepository, TransactionRepository transactionRepository) {
+    public SellerService(SellerRepository sellerRepository, TransactionRepository transactionRepository,
+                         SellerIndex sellerIndex, SalesRollupService salesRollupService, DataVersions dataVersions,
+                         AnalyticsResultCache analyticsResultCache) {
         this.sellerRepository = sellerRepository;
         this.transactionRepository = transactionRepository;
+        this.sellerIndex = sellerIndex;
+        this.salesRollupService = salesRollupService;
+        this.dataVersions = dataVersions;
+        this.analyticsResultCache = analyticsResultCache;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Seller> getAll() {
         return sellerRepository.findAll();
     }
 
     @Override
-    public Optional<Seller> getById(Long id) {
-        return sellerRepository.findById(id);
+    @Transactional(readOnly = true)
+    public CursorPage<SellerDto> getPage(String after, int limit) {
+        PageCursor.validatePageSize(limit);
+        Long afterId = after != null ? PageCursor.decodeId(after) : 0L;
+        List<SellerDto> rows = sellerRepository.findPageAfterId(afterId, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, seller -> PageCursor.encode(seller.getId()));
+    }
+
+    // через findById, а не DTO-запрос: продавец читается из кэша второго уровня без SQL
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<SellerDto> getById(Long id) {
+        return sellerRepository.findById(id).map(SellerService::toDto);
+    }
+
+    // прокси без SELECT: существование уже проверено по индексу
+    @Override
+    public Seller getReferenceById(Long id) {
+        if (!isSellerExists(id)) {
+            throw new IllegalArgumentException("Seller not found with id: " + id);
+        }
+        return sellerRepository.getReferenceById(id);
+    }
+
+    @Override
+    public Optional<String> getSellerName(Long id) {
+        Optional<String> name = sellerIndex.findName(id);
+        if (name.isPresent()) {
+            return name;
+        }
+        return sellerRepository.findById(id).map(this::indexSeller).map(Seller::getName);
     }
 
     @Override
@@ -45,7 +99,9 @@ public class SellerService implements SellerServiceInterface{
         if (!validateSeller(seller)) {
             throw new IllegalArgumentException("Invalid seller data");
         }
-        return sellerRepository.save(seller);
+        Seller saved = indexSeller(sellerRepository.save(seller));
+        dataVersions.sellersChanged();
+        return saved;
     }
 
     @Override
@@ -60,7 +116,10 @@ public class SellerService implements SellerServiceInterface{
             throw new IllegalArgumentException("Invalid seller data");
         }
         
-        return sellerRepository.save(seller);
+        Seller saved = indexSeller(sellerRepository.save(seller));
+        dataVersions.sellersChanged();
+        analyticsResultCache.invalidateAll();
+        return saved;
     }
 
     @Override
@@ -69,97 +128,92 @@ public class SellerService implements SellerServiceInterface{
             throw new EntityNotFoundException("Seller not found with id: " + id);
         }
         sellerRepository.deleteById(id);
+        sellerIndex.remove(id);
+        dataVersions.sellersChanged();
+        analyticsResultCache.invalidateAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Seller getMostProductiveSellerOfAllTime() {
-        List<Object[]> results = transactionRepository.findTopSellersByPeriod(
-                LocalDateTime.of(1900, 1, 1, 0, 0), 
-                LocalDateTime.now()
-        );
-        
-        if (results.isEmpty()) {
-            return null;
-        }
-        
-        Long sellerId = (Long) results.get(0)[0];
-        return sellerRepository.findById(sellerId).orElse(null);
+        return analyticsResultCache.get("most-productive", MIN_TRANSACTION_DATE, null, null,
+                () -> getMostProductiveSeller(MIN_TRANSACTION_DATE, LocalDateTime.now()));
     }
 
+    // начало периода округляется вниз до crm.analytics.cache.granularity, конец - текущий момент
     @Override
+    @Transactional(readOnly = true)
     public Seller getMostProductiveSellerByPeriod(int days) {
-        LocalDateTime startDate = LocalDateTime.now().minusDays(days);
-        LocalDateTime endDate = LocalDateTime.now();
-        
-        List<Object[]> results = transactionRepository.findTopSellersByPeriod(startDate, endDate);
-        
-        if (results.isEmpty()) {
-            return null;
-        }
-        
-        Long sellerId = (Long) results.get(0)[0];
-        return sellerRepository.findById(sellerId).orElse(null);
+        LocalDateTime startDate = analyticsResultCache.quantize(LocalDateTime.now()).minusDays(days);
+        return analyticsResultCache.get("most-productive", startDate, null, null,
+                () -> getMostProductiveSeller(startDate, LocalDateTime.now()));
     }
 
     @Override
-    public List<Seller> getSellersAmountLessThan(BigDecimal limit) {
-        return sellerRepository.findWithTotalSalesLessThan(limit);
+    @Transactional(readOnly = true)
+    public List<SellerRankDto> getTopSellers(int n, LocalDateTime startDate, LocalDateTime endDate, SalesMetric metric) {
+        validateTopSellers(n, startDate, endDate);
+        LocalDateTime end = endDate != null ? endDate : LocalDateTime.now();
+        LocalDateTime start = startDate != null ? startDate : MIN_TRANSACTION_DATE;
+        return analyticsResultCache.get("top", start, endDate, List.of(n, metric),
+                () -> salesRollupService.getTopSellers(start, end, n, metric));
     }
 
-    @Override
-    public List<Seller> getSellersAmountLessThanAndPeriod(BigDecimal limit, LocalDateTime startDate, LocalDateTime endDate) {
-        return sellerRepository.findWithTotalSalesLessThan(limit);
+    // лидер - это топ-1: продавец приходит из той же строки, без отдельного findById
+    private Seller getMostProductiveSeller(LocalDateTime startDate, LocalDateTime endDate) {
+        List<SellerRankDto> top = salesRollupService.getTopSellers(startDate, endDate, 1, SalesMetric.AMOUNT);
+        if (top.isEmpty()) {
+            return null;
+        }
+        SellerRankDto leader = top.get(0);
+        return new Seller(leader.getSellerId(), leader.getName(), leader.getContactInfo(), leader.getRegistrationDate());
     }
 
     @Override
-    public Pair<LocalDate, LocalDate> getMostProductiveTimeById(Long id, Long days) {
-        List<Transaction> allSellerTransactions = transactionRepository.findBySellerId(id);
-
-        if (allSellerTransactions.isEmpty()) {
-            return null;
+    @Transactional(readOnly = true)
+    public CursorPage<SellerSalesTotalDto> getSellersAmountLessThan(BigDecimal limit, LocalDateTime startDate,
+                                                                    LocalDateTime endDate, String after, int size) {
+        if (limit == null) {
+            throw new IllegalArgumentException("limit is mandatory");
         }
+        PageCursor.validatePageSize(size);
+        Long afterId = after != null ? PageCursor.decodeId(after) : 0L;
+        LocalDateTime start = startDate != null ? startDate : MIN_TRANSACTION_DATE;
+        LocalDateTime end = endDate != null ? endDate : LocalDateTime.now();
 
-        Map<LocalDate, Integer> dailyTransactions = new HashMap<>();
+        List<SellerSalesTotalDto> rows = sellerRepository.findWithTotalSalesLessThan(
+                limit, start, end, afterId, Limit.of(size + 1));
+        return CursorPage.of(rows, size, total -> PageCursor.encode(total.getId()));
+    }
 
-        for (Transaction transaction : allSellerTransactions) {
-            LocalDate transactionDate = transaction.getTransactionDate().toLocalDate();
-            dailyTransactions.put(transactionDate, dailyTransactions.getOrDefault(transactionDate, 0) + 1);
+    @Override
+    @Transactional(readOnly = true)
+    public Pair<LocalDate, LocalDate> getMostProductiveTimeById(Long id, Long days, SalesMetric metric) {
+        validateWindowDays(days);
+        SalesWindow window = SalesWindow.fromDailyTotals(salesRollupService.getDailyTotalsBySellerId(id));
+        if (window.isEmpty()) {
+            return null;
         }
+        return window.best(days, metric);
+    }
 
-        List<LocalDate> sortedDates = new ArrayList<>(dailyTransactions.keySet());
-        Collections.sort(sortedDates);
-
-        // если транзакций меньше ччем просят диапазон - вернуть все
-        if (sortedDates.size() <= days) {
-            LocalDate startDate = sortedDates.get(0);
-            LocalDate endDate = sortedDates.get(sortedDates.size() - 1);
-            return new Pair<>(startDate, endDate);
+    // проверки параметров аналитики; SellerController вызывает их до сверки ETag, чтобы неверный запрос не получал 304
+    public static void validateTopSellers(int n, LocalDateTime startDate, LocalDateTime endDate) {
+        if (n < 1 || n > MAX_TOP_SELLERS) {
+            throw new IllegalArgumentException("n must be between 1 and " + MAX_TOP_SELLERS);
         }
-
-        int maxSum = 0;
-        int currentSum = 0;
-        int bestStartIndex = 0;
-
-        for (int i = 0; i < days; i++) {
-            currentSum += dailyTransactions.getOrDefault(sortedDates.get(i), 0);
+        LocalDateTime end = endDate != null ? endDate : LocalDateTime.now();
+        LocalDateTime start = startDate != null ? startDate : MIN_TRANSACTION_DATE;
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
         }
-        maxSum = currentSum;
-
-        for (int i = days.intValue(); i < sortedDates.size(); i++) {
-            currentSum = currentSum
-                    - dailyTransactions.getOrDefault(sortedDates.get(i - days.intValue()), 0)
-                    + dailyTransactions.getOrDefault(sortedDates.get(i), 0);
+    }
 
-            if (currentSum > maxSum) {
-                maxSum = currentSum;
-                bestStartIndex = i - days.intValue() + 1;
-            }
+    // без верхней границы epochDay + days переполняется, а конец окна выходит за LocalDate
+    public static void validateWindowDays(Long days) {
+        if (days == null || days < 1 || days > MAX_WINDOW_DAYS) {
+            throw new IllegalArgumentException("days must be between 1 and " + MAX_WINDOW_DAYS);
         }
-
-        LocalDate startDate = sortedDates.get(bestStartIndex);
-        LocalDate endDate = sortedDates.get(bestStartIndex + days.intValue() - 1);
-
-        return new Pair<>(startDate, endDate);
     }
 
     @Override
@@ -179,9 +233,21 @@ public class SellerService implements SellerServiceInterface{
         return true;
     }
 
+    // промах по индексу проверяем в БД: продавец мог появиться до заполнения индекса или на другом инстансе;
+    // без readOnly: проверка идёт перед записью и должна видеть основную базу, а не отстающую реплику
     @Override
     public boolean isSellerExists(Long sellerId) {
-        return sellerRepository.existsById(sellerId);
+        if (sellerIndex.contains(sellerId)) {
+            return true;
+        }
+        return sellerRepository.findById(sellerId).map(this::indexSeller).isPresent();
+    }
+
+    private Seller indexSeller(Seller seller) {
+        if (seller != null && seller.getId() != null) {
+            sellerIndex.put(seller.getId(), seller.getName());
+        }
+        return seller;
     }
 
     public static SellerDto toDto(Seller seller) {
@@ -1,5 +1,10 @@
 package ru.shift.zverev.crm_system.service;
 
+import ru.shift.zverev.crm_system.dto.CursorPage;
+import ru.shift.zverev.crm_system.dto.SalesMetric;
+import ru.shift.zverev.crm_system.dto.SellerDto;
+import ru.shift.zverev.crm_system.dto.SellerRankDto;
+import ru.shift.zverev.crm_system.dto.SellerSalesTotalDto;
 import ru.shift.zverev.crm_system.model.Seller;
 import ru.shift.zverev.crm_system.model.Transaction;
 
@@ -13,18 +18,22 @@ import java.util.Optional;
 
 public interface SellerServiceInterface {
     List<Seller> getAll();
-    Optional<Seller> getById(Long id);
+    CursorPage<SellerDto> getPage(String after, int limit);
+    Optional<SellerDto> getById(Long id);
+    Seller getReferenceById(Long id);
+    Optional<String> getSellerName(Long id);
     Seller create(Seller seller);
     Seller update(Long id, Seller sellerDetails);
     void delete(Long id);
 
     Seller getMostProductiveSellerOfAllTime();
     Seller getMostProductiveSellerByPeriod(int period);
+    List<SellerRankDto> getTopSellers(int n, LocalDateTime startDate, LocalDateTime endDate, SalesMetric metric);
 
-    List<Seller> getSellersAmountLessThan(BigDecimal limit);
-    List<Seller> getSellersAmountLessThanAndPeriod(BigDecimal limit, LocalDateTime startDate, LocalDateTime EndDate);
+    CursorPage<SellerSalesTotalDto> getSellersAmountLessThan(BigDecimal limit, LocalDateTime startDate,
+                                                             LocalDateTime endDate, String after, int size);
 
-    Pair<LocalDate, LocalDate> getMostProductiveTimeById(Long id, Long days);
+    Pair<LocalDate, LocalDate> getMostProductiveTimeById(Long id, Long days, SalesMetric metric);
 
     boolean validateSeller(Seller seller);
     boolean isSellerExists(Long sellerId);
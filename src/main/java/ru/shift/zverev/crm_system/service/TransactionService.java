@@ -1,43 +1,113 @@
 package ru.shift.zverev.crm_system.service;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.shift.zverev.crm_system.cache.AnalyticsResultCache;
+import ru.shift.zverev.crm_system.cache.DataVersions;
+import ru.shift.zverev.crm_system.cache.SellerSalesAggregate;
+import ru.shift.zverev.crm_system.cache.SellerSalesTotals;
+import ru.shift.zverev.crm_system.dto.CursorPage;
+import ru.shift.zverev.crm_system.dto.PaymentTypeStatisticsDto;
+import ru.shift.zverev.crm_system.dto.SalesStatisticsDto;
+import ru.shift.zverev.crm_system.dto.SellerSalesSummaryDto;
+import ru.shift.zverev.crm_system.dto.TransactionBatchItemResult;
+import ru.shift.zverev.crm_system.dto.TransactionBatchResponse;
 import ru.shift.zverev.crm_system.dto.TransactionDto;
+import ru.shift.zverev.crm_system.dto.TransactionRequest;
 import ru.shift.zverev.crm_system.model.Transaction;
 import ru.shift.zverev.crm_system.repository.TransactionRepository;
 import ru.shift.zverev.crm_system.repository.SellerRepository;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TransactionService implements TransactionServiceInterface{
 
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private static final LocalDateTime MIN_TRANSACTION_DATE = LocalDateTime.of(1900, 1, 1, 0, 0);
+    // совпадает с hibernate.jdbc.batch_size и allocationSize последовательности
+    private static final int BATCH_FLUSH_SIZE = 50;
+
     private final TransactionRepository transactionRepository;
     private final SellerRepository sellerRepository;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final SellerSalesTotals sellerSalesTotals;
+    private final SalesRollupService salesRollupService;
+    private final DataVersions dataVersions;
+    private final AnalyticsResultCache analyticsResultCache;
 
     @Autowired
-    public TransactionService(TransactionRepository transactionRepository, SellerRepository sellerRepository) {
+    public TransactionService(TransactionRepository transactionRepository, SellerRepository sellerRepository,
+                              EntityManager entityManager, Validator validator,
+                              SellerSalesTotals sellerSalesTotals, SalesRollupService salesRollupService,
+                              DataVersions dataVersions, AnalyticsResultCache analyticsResultCache) {
         this.transactionRepository = transactionRepository;
         this.sellerRepository = sellerRepository;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.sellerSalesTotals = sellerSalesTotals;
+        this.salesRollupService = salesRollupService;
+        this.dataVersions = dataVersions;
+        this.analyticsResultCache = analyticsResultCache;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Transaction> getAll() {
         return transactionRepository.findAll();
     }
 
     @Override
-    public Optional<Transaction> getById(Long id) {
-        return transactionRepository.findById(id);
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionDto> getPage(String after, int limit) {
+        PageCursor.validatePageSize(limit);
+        Long afterId = after != null ? PageCursor.decodeId(after) : 0L;
+        List<TransactionDto> rows = transactionRepository.findPageAfterId(afterId, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, transaction -> PageCursor.encode(transaction.getId()));
     }
 
+    // стрим держит открытый курсор, поэтому нужна транзакция на всё время выгрузки;
+    // строки приходят DTO, persistence context не растёт вместе с таблицей
     @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<TransactionDto> consumer) {
+        try (Stream<TransactionDto> transactions = transactionRepository.streamAllOrderById()) {
+            transactions.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<TransactionDto> getById(Long id) {
+        return transactionRepository.findDtoById(id);
+    }
+
+    @Override
+    @Transactional
     public Transaction create(Transaction transaction) {
         if (!validateTransactionAmount(transaction.getAmount())) {
             throw new IllegalArgumentException("Invalid transaction amount");
@@ -45,13 +115,91 @@ public class TransactionService implements TransactionServiceInterface{
         if (!isTransactionDateValid(transaction.getTransactionDate())) {
             throw new IllegalArgumentException("Invalid transaction date");
         }
-        return transactionRepository.save(transaction);
+        Transaction saved = transactionRepository.save(transaction);
+        salesRollupService.record(saved.getSeller().getId(), saved.getTransactionDate(), saved.getPaymentType(),
+                saved.getAmount(), 1);
+        afterCommit(List.of(saved.getSeller().getId()), () -> {
+            sellerSalesTotals.add(saved.getSeller().getId(), saved.getAmount(), saved.getTransactionDate());
+            analyticsResultCache.transactionChanged(saved.getTransactionDate());
+            dataVersions.transactionsChanged();
+        });
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public TransactionBatchResponse createBatch(List<TransactionRequest> requests) {
+        if (requests == null || requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_BATCH_SIZE);
+        }
+
+        Set<Long> requestedSellerIds = requests.stream()
+                .filter(request -> request != null && request.getSellerId() != null)
+                .map(TransactionRequest::getSellerId)
+                .collect(Collectors.toSet());
+        Set<Long> existingSellerIds = requestedSellerIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(sellerRepository.findExistingIds(requestedSellerIds));
+
+        LocalDateTime transactionDate = LocalDateTime.now();
+        TransactionBatchItemResult[] results = new TransactionBatchItemResult[requests.size()];
+        List<TransactionRequest> created = new ArrayList<>();
+        // все элементы пакета попадают в один день, поэтому срез обновляется одним UPDATE на продавца и тип оплаты
+        Map<Long, Map<Transaction.PaymentType, BigDecimal>> rollupAmounts = new HashMap<>();
+        Map<Long, Map<Transaction.PaymentType, Long>> rollupCounts = new HashMap<>();
+        int pending = 0;
+
+        for (int i = 0; i < requests.size(); i++) {
+            TransactionRequest request = requests.get(i);
+            String error = validateBatchItem(request, existingSellerIds);
+            if (error != null) {
+                results[i] = TransactionBatchItemResult.rejected(i, error);
+                continue;
+            }
+
+            Transaction transaction = new Transaction(
+                    sellerRepository.getReferenceById(request.getSellerId()),
+                    request.getAmount(),
+                    Transaction.PaymentType.valueOf(request.getPaymentType().toUpperCase()),
+                    transactionDate);
+            Transaction saved = transactionRepository.save(transaction);
+            results[i] = TransactionBatchItemResult.created(i, saved.getId());
+            created.add(request);
+            rollupAmounts.computeIfAbsent(request.getSellerId(), sellerId -> new HashMap<>())
+                    .merge(saved.getPaymentType(), saved.getAmount(), BigDecimal::add);
+            rollupCounts.computeIfAbsent(request.getSellerId(), sellerId -> new HashMap<>())
+                    .merge(saved.getPaymentType(), 1L, Long::sum);
+
+            if (++pending == BATCH_FLUSH_SIZE) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        rollupAmounts.forEach((sellerId, amounts) -> amounts.forEach((paymentType, amount) ->
+                salesRollupService.record(sellerId, transactionDate, paymentType, amount,
+                        rollupCounts.get(sellerId).get(paymentType))));
+
+        afterCommit(created.stream().map(TransactionRequest::getSellerId).distinct().toList(), () -> {
+            created.forEach(request -> sellerSalesTotals.add(
+                    request.getSellerId(), request.getAmount(), transactionDate));
+            analyticsResultCache.transactionChanged(transactionDate);
+            dataVersions.transactionsChanged();
+        });
+        return new TransactionBatchResponse(Arrays.asList(results));
     }
 
     @Override
+    @Transactional
     public Transaction update(Long id, Transaction transactionDetails) {
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Transaction not found with id: " + id));
+        Long previousSellerId = transaction.getSeller().getId();
+        BigDecimal previousAmount = transaction.getAmount();
+        Transaction.PaymentType previousPaymentType = transaction.getPaymentType();
         
         transaction.setAmount(transactionDetails.getAmount());
         transaction.setPaymentType(transactionDetails.getPaymentType());
@@ -61,52 +209,126 @@ public class TransactionService implements TransactionServiceInterface{
             throw new IllegalArgumentException("Invalid transaction amount");
         }
         
-        return transactionRepository.save(transaction);
+        Transaction saved = transactionRepository.save(transaction);
+        salesRollupService.record(previousSellerId, saved.getTransactionDate(), previousPaymentType,
+                previousAmount.negate(), -1);
+        salesRollupService.record(saved.getSeller().getId(), saved.getTransactionDate(), saved.getPaymentType(),
+                saved.getAmount(), 1);
+        afterCommit(List.of(previousSellerId, saved.getSeller().getId()), () -> {
+            sellerSalesTotals.replace(previousSellerId, previousAmount,
+                    saved.getSeller().getId(), saved.getAmount(), saved.getTransactionDate());
+            analyticsResultCache.transactionChanged(saved.getTransactionDate());
+            dataVersions.transactionsChanged();
+        });
+        return saved;
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
-        if (!transactionRepository.existsById(id)) {
-            throw new EntityNotFoundException("Transaction not found with id: " + id);
-        }
-        transactionRepository.deleteById(id);
+        Transaction transaction = transactionRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Transaction not found with id: " + id));
+        transactionRepository.delete(transaction);
+        salesRollupService.record(transaction.getSeller().getId(), transaction.getTransactionDate(),
+                transaction.getPaymentType(), transaction.getAmount().negate(), -1);
+        afterCommit(List.of(transaction.getSeller().getId()), () -> {
+            sellerSalesTotals.subtract(
+                    transaction.getSeller().getId(), transaction.getAmount(), transaction.getTransactionDate());
+            analyticsResultCache.transactionChanged(transaction.getTransactionDate());
+            dataVersions.transactionsChanged();
+        });
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Transaction> getTransactionsBySellerId(Long id) {
         return transactionRepository.findBySellerId(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Transaction> getTransactionsBySellerIdAndPeriod(Long id, LocalDateTime startDate, LocalDateTime endDate) {
         return transactionRepository.findBySellerIdAndDateRange(id, startDate, endDate);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionDto> getTransactionsPageBySellerId(Long id, LocalDateTime startDate,
+                                                                    LocalDateTime endDate, String after, int limit) {
+        PageCursor.validatePageSize(limit);
+        PageCursor.DateIdCursor cursor = after != null
+                ? PageCursor.decodeDateId(after)
+                : startDate != null ? new PageCursor.DateIdCursor(startDate, 0L) : null;
+
+        // границы по дате только заданные: без endDate страницы доходят и до транзакций позже now()
+        List<TransactionDto> rows;
+        if (endDate != null) {
+            rows = transactionRepository.findPageBySellerIdAfter(id,
+                    cursor != null ? cursor.date() : MIN_TRANSACTION_DATE, cursor != null ? cursor.id() : 0L,
+                    endDate, Limit.of(limit + 1));
+        } else if (cursor != null) {
+            rows = transactionRepository.findPageBySellerIdFrom(id, cursor.date(), cursor.id(), Limit.of(limit + 1));
+        } else {
+            rows = transactionRepository.findFirstPageBySellerId(id, Limit.of(limit + 1));
+        }
+        return CursorPage.of(rows, limit,
+                transaction -> PageCursor.encode(transaction.getTransactionDate(), transaction.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public BigDecimal getTotalAmountBySellerId(Long id) {
-        return transactionRepository.getTotalAmountBySellerId(id);
+        return sellerSalesTotals.find(id)
+                .map(SellerSalesAggregate::total)
+                .orElseGet(() -> transactionRepository.getTotalAmountBySellerId(id));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public SellerSalesSummaryDto getSalesSummaryBySellerId(Long id) {
+        SellerSalesAggregate aggregate = sellerSalesTotals.find(id)
+                .orElseGet(() -> transactionRepository.aggregateBySellerId(id).stream()
+                        .findFirst()
+                        .map(row -> SellerSalesAggregate.fromRow(row, 0))
+                        .orElse(SellerSalesAggregate.EMPTY));
+        return new SellerSalesSummaryDto(id, aggregate.total(), aggregate.count(),
+                aggregate.min(), aggregate.max(), aggregate.lastTransactionDate());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public BigDecimal getTotalAmountBySellerIdAndPeriod(Long id, LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.getTotalAmountBySellerIdAndPeriod(id, startDate, endDate);
+        return salesRollupService.getTotalAmountBySellerIdAndPeriod(id, startDate, endDate);
     }
 
     @Override
-    public Map<String, BigDecimal> getSalesStatisticsByPeriod(LocalDateTime startDate, LocalDateTime endDate) {
-        List<Object[]> results = transactionRepository.findTopSellersByPeriod(startDate, endDate);
-        Map<String, BigDecimal> statistics = new HashMap<>();
-        
-        BigDecimal totalSales = BigDecimal.ZERO;
-        for (Object[] result : results) {
-            BigDecimal amount = (BigDecimal) result[1];
-            totalSales = totalSales.add(amount);
+    @Transactional(readOnly = true)
+    public SalesStatisticsDto getSalesStatisticsByPeriod(LocalDateTime startDate, LocalDateTime endDate) {
+        return analyticsResultCache.get("statistics", startDate, endDate, null,
+                () -> aggregateSalesStatistics(startDate, endDate));
+    }
+
+    private SalesStatisticsDto aggregateSalesStatistics(LocalDateTime startDate, LocalDateTime endDate) {
+        Object[] row = transactionRepository.aggregateStatisticsByPeriod(startDate, endDate).get(0);
+        long transactionCount = ((Number) row[0]).longValue();
+        BigDecimal totalSales = (BigDecimal) row[1];
+        BigDecimal averageAmount = transactionCount > 0
+                ? totalSales.divide(BigDecimal.valueOf(transactionCount), 2, RoundingMode.HALF_UP)
+                : null;
+
+        // разбивка по типам оплаты - по значению enum из строки, а не по позиции столбца
+        Map<Transaction.PaymentType, PaymentTypeStatisticsDto> byPaymentType = new EnumMap<>(Transaction.PaymentType.class);
+        for (Transaction.PaymentType paymentType : Transaction.PaymentType.values()) {
+            byPaymentType.put(paymentType, new PaymentTypeStatisticsDto(0L, BigDecimal.ZERO));
         }
-        
-        statistics.put("totalSales", totalSales);
-        statistics.put("transactionCount", BigDecimal.valueOf(results.size()));
-        
-        return statistics;
+        for (Object[] paymentRow : transactionRepository.aggregateByPaymentTypeForPeriod(startDate, endDate)) {
+            byPaymentType.put((Transaction.PaymentType) paymentRow[0], new PaymentTypeStatisticsDto(
+                    ((Number) paymentRow[1]).longValue(), (BigDecimal) paymentRow[2]));
+        }
+
+        return new SalesStatisticsDto(startDate, endDate, totalSales, transactionCount,
+                ((Number) row[2]).longValue(), averageAmount,
+                (BigDecimal) row[3], (BigDecimal) row[4], byPaymentType);
     }
 
     @Override
@@ -119,6 +341,55 @@ public class TransactionService implements TransactionServiceInterface{
         return transactionDate != null && !transactionDate.isAfter(LocalDateTime.now());
     }
 
+    // кэши обновляем только после успешного коммита; вне транзакции save уже закоммичен.
+    // Итоги продавцов узнают о записи ещё до коммита, чтобы не принять прочитанный в это время итог из БД
+    private void afterCommit(List<Long> sellerIds, Runnable action) {
+        sellerIds.forEach(sellerSalesTotals::beginChange);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    sellerIds.forEach(sellerSalesTotals::endChange);
+                }
+            });
+        } else {
+            try {
+                action.run();
+            } finally {
+                sellerIds.forEach(sellerSalesTotals::endChange);
+            }
+        }
+    }
+
+    private String validateBatchItem(TransactionRequest request, Set<Long> existingSellerIds) {
+        if (request == null) {
+            return "transaction is mandatory";
+        }
+        Set<ConstraintViolation<TransactionRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (!existingSellerIds.contains(request.getSellerId())) {
+            return "Seller not found with id: " + request.getSellerId();
+        }
+        if (Arrays.stream(Transaction.PaymentType.values())
+                .noneMatch(type -> type.name().equalsIgnoreCase(request.getPaymentType()))) {
+            return "Invalid payment type: " + request.getPaymentType();
+        }
+        if (!validateTransactionAmount(request.getAmount())) {
+            return "Invalid transaction amount";
+        }
+        return null;
+    }
+
     public static TransactionDto toDto(Transaction transaction) {
         if (transaction == null) {
             return null;
@@ -1,29 +1,41 @@
 package ru.shift.zverev.crm_system.service;
 
+import ru.shift.zverev.crm_system.dto.CursorPage;
+import ru.shift.zverev.crm_system.dto.SalesStatisticsDto;
+import ru.shift.zverev.crm_system.dto.SellerSalesSummaryDto;
+import ru.shift.zverev.crm_system.dto.TransactionBatchResponse;
+import ru.shift.zverev.crm_system.dto.TransactionDto;
+import ru.shift.zverev.crm_system.dto.TransactionRequest;
 import ru.shift.zverev.crm_system.model.Seller;
 import ru.shift.zverev.crm_system.model.Transaction;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 
 public interface TransactionServiceInterface {
     List<Transaction> getAll();
-    Optional<Transaction> getById(Long id);
+    CursorPage<TransactionDto> getPage(String after, int limit);
+    void exportAll(Consumer<TransactionDto> consumer);
+    Optional<TransactionDto> getById(Long id);
     Transaction create(Transaction transaction);
+    TransactionBatchResponse createBatch(List<TransactionRequest> requests);
     Transaction update(Long id, Transaction transactionDetails);
     void delete(Long id);
 
     List<Transaction> getTransactionsBySellerId(Long id);
     List<Transaction> getTransactionsBySellerIdAndPeriod(Long id, LocalDateTime startDate, LocalDateTime endDate);
+    CursorPage<TransactionDto> getTransactionsPageBySellerId(Long id, LocalDateTime startDate, LocalDateTime endDate,
+                                                             String after, int limit);
 
     BigDecimal getTotalAmountBySellerId(Long id);
+    SellerSalesSummaryDto getSalesSummaryBySellerId(Long id);
     BigDecimal getTotalAmountBySellerIdAndPeriod(Long id, LocalDateTime startDate, LocalDateTime endDate);
 
-    Map<String, BigDecimal> getSalesStatisticsByPeriod(LocalDateTime startDate, LocalDateTime endDate);
+    SalesStatisticsDto getSalesStatisticsByPeriod(LocalDateTime startDate, LocalDateTime endDate);
 
     boolean validateTransactionAmount(BigDecimal amount);
     boolean isTransactionDateValid(LocalDateTime transactionDate);
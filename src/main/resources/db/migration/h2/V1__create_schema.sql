@@ -0,0 +1,27 @@
+CREATE TABLE sellers (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    contact_info VARCHAR(255),
+    registration_date TIMESTAMP(6) NOT NULL
+);
+
+-- шаг совпадает с allocationSize в Transaction
+CREATE SEQUENCE transactions_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE transactions (
+    id BIGINT PRIMARY KEY,
+    seller_id BIGINT NOT NULL,
+    amount NUMERIC(38, 2) NOT NULL,
+    payment_type ENUM ('CARD', 'CASH') NOT NULL,
+    transaction_date TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_transaction_seller FOREIGN KEY (seller_id) REFERENCES sellers (id)
+);
+
+CREATE TABLE seller_daily_sales (
+    seller_id BIGINT NOT NULL,
+    sales_day DATE NOT NULL,
+    payment_type ENUM ('CARD', 'CASH') NOT NULL,
+    amount_sum NUMERIC(38, 2) NOT NULL,
+    tx_count BIGINT NOT NULL,
+    PRIMARY KEY (seller_id, sales_day, payment_type)
+);
@@ -0,0 +1,3 @@
+-- H2 не поддерживает INCLUDE, amount добавлен последним столбцом ключа
+CREATE INDEX idx_transactions_seller_date ON transactions (seller_id, transaction_date, amount);
+CREATE INDEX idx_transactions_date ON transactions (transaction_date);
@@ -0,0 +1,32 @@
+-- IF NOT EXISTS: базы, созданные раньше через ddl-auto=update, подхватываются с baseline-version=0
+CREATE TABLE IF NOT EXISTS sellers (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    contact_info VARCHAR(255),
+    registration_date TIMESTAMP(6) NOT NULL
+);
+
+-- шаг совпадает с allocationSize в Transaction
+CREATE SEQUENCE IF NOT EXISTS transactions_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id BIGINT PRIMARY KEY,
+    seller_id BIGINT NOT NULL,
+    amount NUMERIC(38, 2) NOT NULL,
+    payment_type VARCHAR(20) NOT NULL CHECK (payment_type IN ('CARD', 'CASH')),
+    transaction_date TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_transaction_seller FOREIGN KEY (seller_id) REFERENCES sellers (id)
+);
+
+-- в существующей таблице последовательность должна начинаться после уже выданных id
+SELECT setval('transactions_seq', (SELECT MAX(id) FROM transactions) + 50)
+WHERE EXISTS (SELECT 1 FROM transactions);
+
+CREATE TABLE IF NOT EXISTS seller_daily_sales (
+    seller_id BIGINT NOT NULL,
+    sales_day DATE NOT NULL,
+    payment_type VARCHAR(20) NOT NULL CHECK (payment_type IN ('CARD', 'CASH')),
+    amount_sum NUMERIC(38, 2) NOT NULL,
+    tx_count BIGINT NOT NULL,
+    PRIMARY KEY (seller_id, sales_day, payment_type)
+);
@@ -0,0 +1,4 @@
+-- покрывающий индекс для фильтров по продавцу и периоду: сумма читается из индекса без обращения к таблице
+CREATE INDEX IF NOT EXISTS idx_transactions_seller_date ON transactions (seller_id, transaction_date) INCLUDE (amount);
+-- BETWEEN по дате для всех продавцов (findTopSellersByPeriod, статистика за период)
+CREATE INDEX IF NOT EXISTS idx_transactions_date ON transactions (transaction_date);
@@ -0,0 +1,58 @@
+-- Помесячное секционирование transactions по transaction_date.
+-- Ключ секционирования обязан входить в первичный ключ, поэтому PK - (id, transaction_date);
+-- id по-прежнему уникален, его выдаёт transactions_seq.
+
+-- создаёт секцию за месяц, в который попадает month_start, если её ещё нет; возвращает имя секции
+CREATE OR REPLACE FUNCTION create_transactions_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    from_date DATE := date_trunc('month', month_start)::DATE;
+    partition_name TEXT := 'transactions_' || to_char(from_date, 'YYYY_MM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, from_date, (from_date + INTERVAL '1 month')::DATE);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+ALTER TABLE transactions_unpartitioned RENAME CONSTRAINT transactions_pkey TO transactions_unpartitioned_pkey;
+DROP INDEX IF EXISTS idx_transactions_seller_date;
+DROP INDEX IF EXISTS idx_transactions_date;
+
+CREATE TABLE transactions (
+    id BIGINT NOT NULL,
+    seller_id BIGINT NOT NULL,
+    amount NUMERIC(38, 2) NOT NULL,
+    payment_type VARCHAR(20) NOT NULL CHECK (payment_type IN ('CARD', 'CASH')),
+    transaction_date TIMESTAMP(6) NOT NULL,
+    CONSTRAINT transactions_pkey PRIMARY KEY (id, transaction_date),
+    CONSTRAINT fk_transaction_seller FOREIGN KEY (seller_id) REFERENCES sellers (id)
+) PARTITION BY RANGE (transaction_date);
+
+-- страховка для дат вне созданных секций (задним числом до первой секции или если планировщик не отработал)
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+-- секции от месяца самой ранней транзакции до трёх месяцев вперёд, дальше их создаёт TransactionPartitionScheduler
+DO $$
+DECLARE
+    month_start DATE;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(transaction_date), now()))::DATE
+    INTO month_start
+    FROM transactions_unpartitioned;
+
+    WHILE month_start <= (date_trunc('month', now()) + INTERVAL '3 months')::DATE LOOP
+        PERFORM create_transactions_partition(month_start);
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+END;
+$$;
+
+INSERT INTO transactions (id, seller_id, amount, payment_type, transaction_date)
+SELECT id, seller_id, amount, payment_type, transaction_date FROM transactions_unpartitioned;
+
+DROP TABLE transactions_unpartitioned;
+
+-- индексы на секционированной таблице создаются в каждой секции, в том числе в будущих
+CREATE INDEX idx_transactions_seller_date ON transactions (seller_id, transaction_date) INCLUDE (amount);
+CREATE INDEX idx_transactions_date ON transactions (transaction_date);
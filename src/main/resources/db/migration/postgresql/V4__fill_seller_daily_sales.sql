@@ -0,0 +1,7 @@
+-- базы, подхваченные с baseline-version=0, получили пустой seller_daily_sales при уже заполненной transactions;
+-- срез заполняется так же, как SellerDailySalesRepository.rebuildFromTransactions, только если он пуст
+INSERT INTO seller_daily_sales (seller_id, sales_day, payment_type, amount_sum, tx_count)
+SELECT seller_id, CAST(transaction_date AS DATE), payment_type, SUM(amount), COUNT(*)
+FROM transactions
+WHERE NOT EXISTS (SELECT 1 FROM seller_daily_sales)
+GROUP BY seller_id, CAST(transaction_date AS DATE), payment_type;
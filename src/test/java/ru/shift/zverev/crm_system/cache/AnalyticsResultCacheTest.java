@@ -0,0 +1,105 @@
+package ru.shift.zverev.crm_system.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticsResultCacheTest {
+
+    private AnalyticsResultCache cache;
+    private AtomicInteger loads;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AnalyticsResultCache(Duration.ofMinutes(5), 100, Duration.ZERO, new SimpleMeterRegistry());
+        loads = new AtomicInteger();
+        start = LocalDateTime.of(2024, 3, 1, 0, 0);
+    }
+
+    @Test
+    void testQuantize_FloorsToGranularity() {
+        assertEquals(LocalDateTime.of(2024, 3, 1, 12, 35), cache.quantize(LocalDateTime.of(2024, 3, 1, 12, 39, 59, 999)));
+        assertEquals(LocalDateTime.of(2024, 3, 1, 12, 40), cache.quantize(LocalDateTime.of(2024, 3, 1, 12, 40)));
+    }
+
+    @Test
+    void testQuantize_InvalidGranularity() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AnalyticsResultCache(Duration.ofMillis(500), 100, Duration.ZERO, new SimpleMeterRegistry()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AnalyticsResultCache(Duration.ofDays(2), 100, Duration.ZERO, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void testGet_SameKeyLoadsOnce() {
+        assertEquals(1, load("statistics", start, start.plusDays(7), null));
+        assertEquals(1, load("statistics", start, start.plusDays(7), null));
+        assertEquals(2, load("statistics", start, start.plusDays(8), null));
+        assertEquals(3, load("top", start, start.plusDays(7), 10));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void testGet_NullResultIsCached() {
+        cache.get("most-productive", start, null, null, () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        assertNull(cache.get("most-productive", start, null, null, () -> loads.incrementAndGet()));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testTransactionChanged_RemovesOnlyWindowsContainingDate() {
+        load("closed", start, start.plusDays(7), null);
+        load("open", start, null, null);
+        load("later", start.plusDays(10), start.plusDays(20), null);
+
+        cache.transactionChanged(start.plusDays(3));
+
+        assertEquals(4, load("closed", start, start.plusDays(7), null));
+        assertEquals(5, load("open", start, null, null));
+        assertEquals(3, load("later", start.plusDays(10), start.plusDays(20), null));
+    }
+
+    @Test
+    void testTransactionChanged_DuringLoadResultNotStored() {
+        cache.get("statistics", start, null, null, () -> {
+            cache.transactionChanged(start.minusDays(1));
+            return loads.incrementAndGet();
+        });
+
+        assertEquals(2, load("statistics", start, null, null));
+    }
+
+    @Test
+    void testInvalidateAll() {
+        load("open", start, null, null);
+        cache.invalidateAll();
+        assertEquals(2, load("open", start, null, null));
+    }
+
+    @Test
+    void testReplicaStaleness_ResultsNotStoredRightAfterInvalidation() {
+        AnalyticsResultCache replicaCache =
+                new AnalyticsResultCache(Duration.ofMinutes(5), 100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        replicaCache.get("open", start, null, null, () -> loads.incrementAndGet());
+        assertEquals(1, replicaCache.get("open", start, null, null, () -> loads.incrementAndGet()));
+
+        replicaCache.transactionChanged(start.plusDays(1));
+
+        assertEquals(2, replicaCache.get("open", start, null, null, () -> loads.incrementAndGet()));
+        assertEquals(3, replicaCache.get("open", start, null, null, () -> loads.incrementAndGet()));
+    }
+
+    private int load(String name, LocalDateTime windowStart, LocalDateTime windowEnd, Object params) {
+        return cache.get(name, windowStart, windowEnd, params, () -> loads.incrementAndGet());
+    }
+}
@@ -0,0 +1,174 @@
+package ru.shift.zverev.crm_system.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.shift.zverev.crm_system.repository.TransactionRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SellerSalesTotalsTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private SellerSalesTotals sellerSalesTotals;
+
+    private LocalDateTime testDate;
+
+    @BeforeEach
+    void setUp() {
+        testDate = LocalDateTime.now();
+    }
+
+    @Test
+    void testFind_BeforeHydrationIsEmpty() {
+        sellerSalesTotals.add(1L, new BigDecimal("100.00"), testDate);
+
+        assertTrue(sellerSalesTotals.find(1L).isEmpty());
+    }
+
+    @Test
+    void testHydrateAndAdd() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, 2L, new BigDecimal("300.00"), new BigDecimal("100.00"),
+                new BigDecimal("200.00"), testDate.minusDays(1)});
+        when(transactionRepository.aggregateAllBySeller()).thenReturn(rows);
+        sellerSalesTotals.hydrate();
+
+        sellerSalesTotals.add(1L, new BigDecimal("50.00"), testDate);
+        sellerSalesTotals.add(2L, new BigDecimal("10.00"), testDate);
+
+        SellerSalesAggregate first = sellerSalesTotals.find(1L).orElseThrow();
+        assertEquals(new BigDecimal("350.00"), first.total());
+        assertEquals(3, first.count());
+        assertEquals(new BigDecimal("50.00"), first.min());
+        assertEquals(new BigDecimal("200.00"), first.max());
+        assertEquals(testDate, first.lastTransactionDate());
+        assertEquals(new BigDecimal("10.00"), sellerSalesTotals.find(2L).orElseThrow().total());
+        assertEquals(SellerSalesAggregate.EMPTY, sellerSalesTotals.find(3L).orElseThrow());
+    }
+
+    @Test
+    void testSubtract_InnerValueAdjustsInMemory() {
+        hydrateWith(3L, "600.00", "100.00", "300.00");
+
+        sellerSalesTotals.subtract(1L, new BigDecimal("200.00"), testDate.minusDays(2));
+
+        SellerSalesAggregate aggregate = sellerSalesTotals.find(1L).orElseThrow();
+        assertEquals(new BigDecimal("400.00"), aggregate.total());
+        assertEquals(2, aggregate.count());
+        verify(transactionRepository, never()).aggregateBySellerId(anyLong());
+    }
+
+    @Test
+    void testSubtract_BoundaryValueReloadsSeller() {
+        hydrateWith(3L, "600.00", "100.00", "300.00");
+        List<Object[]> reloaded = new ArrayList<>();
+        reloaded.add(new Object[]{2L, new BigDecimal("300.00"), new BigDecimal("100.00"),
+                new BigDecimal("200.00"), testDate.minusDays(1)});
+        when(transactionRepository.aggregateBySellerId(1L)).thenReturn(reloaded);
+
+        sellerSalesTotals.subtract(1L, new BigDecimal("300.00"), testDate.minusDays(2));
+
+        SellerSalesAggregate aggregate = sellerSalesTotals.find(1L).orElseThrow();
+        assertEquals(new BigDecimal("300.00"), aggregate.total());
+        assertEquals(new BigDecimal("200.00"), aggregate.max());
+    }
+
+    @Test
+    void testReplace_ReloadedSellerIsNotCountedTwice() {
+        hydrateWith(3L, "600.00", "100.00", "300.00");
+        List<Object[]> reloaded = new ArrayList<>();
+        reloaded.add(new Object[]{3L, new BigDecimal("350.00"), new BigDecimal("50.00"),
+                new BigDecimal("200.00"), testDate.minusDays(1)});
+        when(transactionRepository.aggregateBySellerId(1L)).thenReturn(reloaded);
+
+        sellerSalesTotals.replace(1L, new BigDecimal("300.00"), 1L, new BigDecimal("50.00"), testDate.minusDays(2));
+
+        assertEquals(new BigDecimal("350.00"), sellerSalesTotals.find(1L).orElseThrow().total());
+    }
+
+    @Test
+    void testHydrate_CommitDuringSnapshotReloadsSeller() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, 2L, new BigDecimal("300.00"), new BigDecimal("100.00"),
+                new BigDecimal("200.00"), testDate.minusDays(1)});
+        // запись начата до заполнения и коммитится, пока выборка читается: в выборку она не попала,
+        // а её add() пришёл до готовности и пропущен
+        sellerSalesTotals.beginChange(1L);
+        when(transactionRepository.aggregateAllBySeller()).thenAnswer(invocation -> {
+            sellerSalesTotals.add(1L, new BigDecimal("50.00"), testDate);
+            sellerSalesTotals.endChange(1L);
+            return rows;
+        });
+        List<Object[]> reloaded = new ArrayList<>();
+        reloaded.add(new Object[]{3L, new BigDecimal("350.00"), new BigDecimal("50.00"),
+                new BigDecimal("200.00"), testDate});
+        when(transactionRepository.aggregateBySellerId(1L)).thenReturn(reloaded);
+
+        sellerSalesTotals.hydrate();
+
+        assertEquals(new BigDecimal("350.00"), sellerSalesTotals.find(1L).orElseThrow().total());
+        assertEquals(new BigDecimal("350.00"), sellerSalesTotals.find(1L).orElseThrow().total());
+        verify(transactionRepository, times(1)).aggregateBySellerId(1L);
+    }
+
+    @Test
+    void testHydrate_FinishedChangesDoNotBlockSeller() {
+        sellerSalesTotals.beginChange(1L);
+        sellerSalesTotals.add(1L, new BigDecimal("50.00"), testDate);
+        sellerSalesTotals.endChange(1L);
+
+        hydrateWith(3L, "350.00", "50.00", "200.00");
+
+        assertEquals(new BigDecimal("350.00"), sellerSalesTotals.find(1L).orElseThrow().total());
+        verify(transactionRepository, never()).aggregateBySellerId(anyLong());
+    }
+
+    @Test
+    void testReload_ChangeDuringQueryIsNotInstalled() {
+        hydrateWith(3L, "600.00", "100.00", "300.00");
+        sellerSalesTotals.subtract(1L, new BigDecimal("300.00"), testDate.minusDays(2));
+        List<Object[]> beforeAdd = new ArrayList<>();
+        beforeAdd.add(new Object[]{2L, new BigDecimal("300.00"), new BigDecimal("100.00"),
+                new BigDecimal("200.00"), testDate.minusDays(1)});
+        List<Object[]> afterAdd = new ArrayList<>();
+        afterAdd.add(new Object[]{3L, new BigDecimal("350.00"), new BigDecimal("50.00"),
+                new BigDecimal("200.00"), testDate});
+        // продажа продавца коммитится, пока его итог перечитывается
+        when(transactionRepository.aggregateBySellerId(1L))
+                .thenAnswer(invocation -> {
+                    sellerSalesTotals.beginChange(1L);
+                    sellerSalesTotals.add(1L, new BigDecimal("50.00"), testDate);
+                    sellerSalesTotals.endChange(1L);
+                    return beforeAdd;
+                })
+                .thenReturn(afterAdd);
+
+        assertEquals(new BigDecimal("300.00"), sellerSalesTotals.find(1L).orElseThrow().total());
+        assertEquals(new BigDecimal("350.00"), sellerSalesTotals.find(1L).orElseThrow().total());
+        assertEquals(new BigDecimal("350.00"), sellerSalesTotals.find(1L).orElseThrow().total());
+        verify(transactionRepository, times(2)).aggregateBySellerId(1L);
+    }
+
+    private void hydrateWith(long count, String total, String min, String max) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, count, new BigDecimal(total), new BigDecimal(min),
+                new BigDecimal(max), testDate.minusDays(1)});
+        when(transactionRepository.aggregateAllBySeller()).thenReturn(rows);
+        sellerSalesTotals.hydrate();
+    }
+}
@@ -0,0 +1,90 @@
+package ru.shift.zverev.crm_system.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.shift.zverev.crm_system.model.Seller;
+import ru.shift.zverev.crm_system.model.Transaction;
+import ru.shift.zverev.crm_system.repository.SellerRepository;
+import ru.shift.zverev.crm_system.repository.TransactionRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// отдельная база: остальные контексты тестов держат открытой общую testdb
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statistics",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "management.endpoints.web.exposure.include=hibernate",
+        "crm.hibernate.request-statement-threshold=1"
+})
+@AutoConfigureMockMvc
+class HibernateStatisticsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void testFlagsRequestsOverThreshold() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        Seller seller = sellerRepository.save(new Seller("Иван Иванов", now.minusMonths(1)));
+        Transaction transaction = transactionRepository.save(
+                new Transaction(seller, new BigDecimal("100.00"), Transaction.PaymentType.CARD, now.minusDays(2)));
+        mockMvc.perform(delete("/actuator/hibernate"))
+                .andExpect(status().isNoContent());
+
+        // удаление читает сущность, удаляет строку и правит дневные итоги - больше одного запроса
+        mockMvc.perform(delete("/api/transactions/" + transaction.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/actuator/hibernate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cumulative.enabled").value(true))
+                .andExpect(jsonPath("$.cumulative.statements").value(greaterThan(0)))
+                .andExpect(jsonPath("$.cumulative.entityLoads").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.requests.statementThreshold").value(1))
+                .andExpect(jsonPath("$.requests.flagged").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.requests.recentFlagged[*].request",
+                        hasItem("DELETE /api/transactions/" + transaction.getId())))
+                .andExpect(jsonPath("$.requests.recentFlagged[0].collectionFetches").value(0))
+                .andExpect(jsonPath("$.requests.recentFlagged[0].secondLevelCacheMisses").exists())
+                .andExpect(jsonPath("$.requests.recentFlagged[0].queryCacheHits").exists());
+    }
+
+    @Test
+    void testListEndpointReadsDtosInOneStatement() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        Seller first = sellerRepository.save(new Seller("Мария Петрова", now.minusMonths(1)));
+        Seller second = sellerRepository.save(new Seller("Петр Сидоров", now.minusMonths(1)));
+        transactionRepository.saveAll(List.of(
+                new Transaction(first, new BigDecimal("100.00"), Transaction.PaymentType.CARD, now.minusDays(2)),
+                new Transaction(second, new BigDecimal("200.00"), Transaction.PaymentType.CASH, now.minusDays(1))));
+        mockMvc.perform(delete("/actuator/hibernate"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/transactions?limit=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].sellerName", hasItems("Мария Петрова", "Петр Сидоров")));
+
+        mockMvc.perform(get("/actuator/hibernate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cumulative.entityLoads").value(0))
+                .andExpect(jsonPath("$.requests.recentFlagged[*].request",
+                        not(hasItem("GET /api/transactions?limit=10"))));
+    }
+}
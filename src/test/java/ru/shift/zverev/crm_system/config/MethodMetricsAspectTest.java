@@ -0,0 +1,70 @@
+package ru.shift.zverev.crm_system.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.shift.zverev.crm_system.dto.SalesMetric;
+import ru.shift.zverev.crm_system.service.SellerServiceInterface;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "management.endpoints.web.exposure.include=prometheus",
+        "management.metrics.distribution.percentiles-histogram.spring.data.repository.invocations=true"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MethodMetricsAspectTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SellerServiceInterface sellerService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void testServiceAndRepositoryMetrics() throws Exception {
+        sellerService.getPage(null, 10);
+
+        assertTrue(registry.get("crm.service.invocations")
+                .tags("class", "SellerService", "method", "getPage", "outcome", "success")
+                .timer().count() >= 1);
+        assertTrue(registry.get("crm.service.rows")
+                .tags("class", "SellerService", "method", "getPage")
+                .summary().count() >= 1);
+        assertTrue(registry.get("crm.repository.rows")
+                .tags("class", "SellerRepository", "method", "findPageAfterId")
+                .summary().count() >= 1);
+        assertTrue(registry.get("spring.data.repository.invocations")
+                .tags("repository", "SellerRepository", "method", "findPageAfterId")
+                .timer().count() >= 1);
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("crm_service_invocations_seconds_bucket{")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+                .andExpect(content().string(containsString("crm_repository_rows_bucket{")));
+    }
+
+    @Test
+    void testServiceMetrics_ErrorOutcome() {
+        assertThrows(IllegalArgumentException.class,
+                () -> sellerService.getTopSellers(0, null, null, SalesMetric.AMOUNT));
+
+        assertEquals(1, registry.get("crm.service.invocations")
+                .tags("class", "SellerService", "method", "getTopSellers",
+                        "outcome", "error", "exception", "IllegalArgumentException")
+                .timer().count());
+    }
+}
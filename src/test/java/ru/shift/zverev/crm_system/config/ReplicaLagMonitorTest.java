@@ -0,0 +1,42 @@
+package ru.shift.zverev.crm_system.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaLagMonitorTest {
+
+    private final DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:lag", "sa", "");
+
+    @Test
+    void testLagWithinMaxStaleness() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "SELECT 2.5", Duration.ofSeconds(5), registry);
+
+        assertTrue(monitor.isReplicaUsable());
+        assertEquals(2.5, registry.get("crm.datasource.replica.lag").gauge().value());
+    }
+
+    @Test
+    void testLagAboveMaxStaleness() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "SELECT 6", Duration.ofSeconds(5),
+                new SimpleMeterRegistry());
+
+        assertFalse(monitor.isReplicaUsable());
+    }
+
+    @Test
+    void testUnavailableReplica() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "SELECT lag FROM missing_table",
+                Duration.ofSeconds(5), registry);
+
+        assertFalse(monitor.isReplicaUsable());
+        assertTrue(Double.isNaN(registry.get("crm.datasource.replica.lag").gauge().value()));
+    }
+}
@@ -0,0 +1,152 @@
+package ru.shift.zverev.crm_system.config;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.shift.zverev.crm_system.model.Seller;
+import ru.shift.zverev.crm_system.repository.SellerRepository;
+import ru.shift.zverev.crm_system.service.SellerServiceInterface;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Две независимые базы H2 вместо основной базы и реплики: репликации между ними нет,
+// поэтому по содержимому ответа видно, из какой базы он прочитан.
+// Кэш второго уровня включён, чтобы проверить, что прочитанное из реплики в него не попадает.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "crm.datasource.replica.enabled=true",
+        "crm.datasource.replica.url=" + ReplicaRoutingTest.REPLICA_URL,
+        "crm.datasource.replica.username=sa",
+        "crm.datasource.replica.max-staleness=5s",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SellerServiceInterface sellerService;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @BeforeAll
+    void setUp() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").locations("classpath:db/migration/h2").load().migrate();
+        new JdbcTemplate(primaryDataSource).update(
+                "INSERT INTO sellers (name, registration_date) VALUES ('Основная база', CURRENT_TIMESTAMP)");
+        new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "")).update(
+                "INSERT INTO sellers (name, registration_date) VALUES ('Реплика', CURRENT_TIMESTAMP)");
+    }
+
+    @Test
+    void testReadOnlyServiceMethodsReadReplica() {
+        assertTrue(sellerService.getAll().stream().anyMatch(seller -> seller.getName().equals("Реплика")));
+        assertTrue(sellerService.getAll().stream().noneMatch(seller -> seller.getName().equals("Основная база")));
+    }
+
+    @Test
+    void testReplicaReadsDoNotFillSecondLevelCache() {
+        Cache cache = entityManagerFactory.getCache();
+        Long written = sellerService.create(new Seller("Записан в основную", LocalDateTime.now())).getId();
+        cache.evictAll();
+        // чтение в изменяющей транзакции идёт в основную базу и кладёт продавца в кэш
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> sellerRepository.findById(written));
+        assertTrue(cache.contains(Seller.class, written));
+
+        Long replicaSellerId = sellerService.getAll().stream()
+                .filter(seller -> seller.getName().equals("Реплика"))
+                .findFirst().orElseThrow().getId();
+        assertTrue(sellerService.getById(replicaSellerId).isPresent());
+
+        assertFalse(cache.contains(Seller.class, replicaSellerId));
+    }
+
+    @Test
+    void testNonTransactionalChecksReadPrimary() {
+        Long primaryOnly = sellerService.create(new Seller("Только в основной", LocalDateTime.now())).getId();
+
+        assertTrue(sellerService.isSellerExists(primaryOnly));
+        assertTrue(sellerService.getById(primaryOnly).isEmpty());
+    }
+
+    @Test
+    void testClientReadsOwnWritesFromPrimary() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/sellers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Новый продавец\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Cookie lastWrite = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        assertNotNull(lastWrite);
+
+        mockMvc.perform(get("/api/sellers").cookie(lastWrite))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Новый продавец")))
+                .andExpect(content().string(not(containsString("Реплика"))));
+        mockMvc.perform(get("/api/sellers"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Реплика")))
+                .andExpect(content().string(not(containsString("Новый продавец"))));
+    }
+
+    @Test
+    void testStickinessExpiresAfterMaxStaleness() throws Exception {
+        Cookie oldWrite = new Cookie(ReadYourWritesFilter.COOKIE_NAME,
+                Long.toString(System.currentTimeMillis() - 6_000));
+
+        mockMvc.perform(get("/api/sellers").cookie(oldWrite))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Реплика")));
+    }
+
+    @Test
+    void testNoETagWhileReplicaMayLag() throws Exception {
+        mockMvc.perform(post("/api/sellers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Ещё продавец\"}"))
+                .andExpect(status().isCreated());
+
+        assertNull(mockMvc.perform(get("/api/sellers")).andReturn().getResponse().getHeader("ETag"));
+    }
+}
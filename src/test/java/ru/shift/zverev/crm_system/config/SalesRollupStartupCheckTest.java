@@ -0,0 +1,38 @@
+package ru.shift.zverev.crm_system.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import ru.shift.zverev.crm_system.service.SalesRollupService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupStartupCheckTest {
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @InjectMocks
+    private SalesRollupStartupCheck startupCheck;
+
+    @Test
+    void testStart_VerifiesRollup() {
+        startupCheck.start();
+
+        verify(salesRollupService).verifyOnStartup();
+        assertTrue(startupCheck.isRunning());
+    }
+
+    @Test
+    void testPhase_BeforeWebServer() {
+        // фаза WebServerStartStopLifecycle
+        int webServerPhase = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024;
+
+        assertTrue(startupCheck.getPhase() < webServerPhase);
+    }
+}
@@ -0,0 +1,59 @@
+package ru.shift.zverev.crm_system.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final SamplingTurboFilter filter = new SamplingTurboFilter();
+
+    @BeforeEach
+    void setUp() {
+        filter.addLoggerName("org.hibernate.SQL");
+        filter.setRate(3);
+        filter.start();
+    }
+
+    @Test
+    void testDecide_PassesEveryNthMessage() {
+        Logger sql = context.getLogger("org.hibernate.SQL");
+
+        int passed = 0;
+        for (int i = 0; i < 9; i++) {
+            if (filter.decide(null, sql, Level.DEBUG, "select 1", null, null) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+
+        assertEquals(3, passed);
+    }
+
+    @Test
+    void testDecide_IgnoresOtherLoggersWarningsAndLevelChecks() {
+        Logger sql = context.getLogger("org.hibernate.SQL");
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, context.getLogger("org.hibernate.SQL_SLOW"),
+                Level.INFO, "slow query", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, context.getLogger("org.springframework.web"),
+                Level.DEBUG, "request", null, null));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, sql, Level.DEBUG, null, null, null));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, sql, Level.WARN, "warning", null, null));
+        }
+    }
+
+    @Test
+    void testDecide_MatchesChildLoggers() {
+        Logger child = context.getLogger("org.hibernate.SQL.child");
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, child, Level.DEBUG, "select 1", null, null));
+        assertEquals(FilterReply.DENY, filter.decide(null, child, Level.DEBUG, "select 2", null, null));
+    }
+}
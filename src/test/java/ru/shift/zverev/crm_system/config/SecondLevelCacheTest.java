@@ -0,0 +1,122 @@
+package ru.shift.zverev.crm_system.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.shift.zverev.crm_system.model.Seller;
+import ru.shift.zverev.crm_system.repository.SellerRepository;
+import ru.shift.zverev.crm_system.service.SellerServiceInterface;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// отдельная база: остальные контексты тестов держат открытой общую testdb;
+// кэш включён только здесь и в ReplicaRoutingTest - менеджер JCache один на все контексты в JVM
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cache",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+class SecondLevelCacheTest {
+
+    @Autowired
+    private SellerServiceInterface sellerService;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private RequestStatementCounter counter;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testSellerByIdServedFromCache() {
+        Long id = sellerRepository.save(new Seller("Иван Иванов", LocalDateTime.now())).getId();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        sellerService.getById(id);
+        sellerService.getById(id);
+        sellerService.getSellerName(id);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCacheMissCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 1);
+        assertTrue(registry.get("hibernate.second.level.cache.requests")
+                .tags("region", "sellers", "result", "hit")
+                .functionCounter().count() >= 1);
+    }
+
+    @Test
+    void testUpdateAndDeleteInvalidateCache() {
+        Long id = sellerService.create(new Seller("Мария Петрова", LocalDateTime.now())).getId();
+        assertEquals("Мария Петрова", sellerService.getById(id).orElseThrow().getName());
+
+        Seller details = new Seller();
+        details.setName("Мария Сидорова");
+        sellerService.update(id, details);
+        assertEquals("Мария Сидорова", sellerService.getById(id).orElseThrow().getName());
+
+        sellerService.delete(id);
+        assertTrue(sellerService.getById(id).isEmpty());
+    }
+
+    @Test
+    void testFindByNameQueryCache() {
+        Seller seller = sellerRepository.save(new Seller("Петр Петров", LocalDateTime.now()));
+
+        assertEquals(1, sellerRepository.findByName("Петр Петров").size());
+        assertEquals(1, sellerRepository.findByName("Петр Петров").size());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        // изменение таблицы sellers делает закэшированный результат устаревшим
+        seller.setName("Петр Сидоров");
+        sellerRepository.save(seller);
+        List<Seller> afterRename = sellerRepository.findByName("Петр Петров");
+
+        assertTrue(afterRename.isEmpty());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void testRequestCounterSeesCacheHitsAndMisses() {
+        Long id = sellerRepository.save(new Seller("Анна Смирнова", LocalDateTime.now())).getId();
+        entityManagerFactory.getCache().evictAll();
+
+        counter.begin();
+        sellerService.getById(id);
+        sellerService.getById(id);
+        sellerRepository.findByName("Анна Смирнова");
+        sellerRepository.findByName("Анна Смирнова");
+        RequestStatementCounter.Counts counts = counter.end();
+
+        assertEquals(1, counts.getSecondLevelCacheMisses());
+        assertTrue(counts.getSecondLevelCacheHits() >= 1);
+        assertEquals(1, counts.getQueryCacheMisses());
+        assertEquals(1, counts.getQueryCacheHits());
+        assertEquals(0, counts.getCollectionFetches());
+    }
+}
@@ -0,0 +1,53 @@
+package ru.shift.zverev.crm_system.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// отдельная база: остальные контексты тестов держат открытой общую testdb
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:generator",
+        "crm.generator.sellers=20",
+        "crm.generator.transactions=60000",
+        "crm.generator.days=30",
+        "crm.generator.threads=2",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("generate")
+class SyntheticDataGeneratorTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SyntheticDataGenerator generator;
+
+    @Test
+    void testGeneratesRowsAndRollup() {
+        assertEquals(20, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sellers", Long.class));
+        assertEquals(60_000, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Long.class));
+        assertEquals(60_000, jdbcTemplate.queryForObject(
+                "SELECT SUM(tx_count) FROM seller_daily_sales", Long.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT SUM(amount) FROM transactions", BigDecimal.class)
+                .compareTo(jdbcTemplate.queryForObject("SELECT SUM(amount_sum) FROM seller_daily_sales", BigDecimal.class)));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE transaction_date >= CURRENT_DATE", Long.class));
+    }
+
+    @Test
+    void testRunsBeforeRollupCheckAndWebServer() {
+        // фаза WebServerStartStopLifecycle
+        int webServerPhase = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024;
+
+        assertTrue(generator.isRunning());
+        assertTrue(generator.getPhase() < SalesRollupStartupCheck.PHASE);
+        assertTrue(generator.getPhase() < webServerPhase);
+    }
+}
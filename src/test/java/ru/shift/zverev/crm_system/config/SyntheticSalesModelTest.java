@@ -0,0 +1,89 @@
+package ru.shift.zverev.crm_system.config;
+
+import org.junit.jupiter.api.Test;
+import ru.shift.zverev.crm_system.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticSalesModelTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    private final SyntheticSalesModel model = new SyntheticSalesModel(42, 100, 1.1, FIRST_DAY, 30, 0.7);
+
+    @Test
+    void testSameSeedAndChunk_SameRows() {
+        SplittableRandom first = model.random(3);
+        SplittableRandom second = new SyntheticSalesModel(42, 100, 1.1, FIRST_DAY, 30, 0.7).random(3);
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(model.sellerIndex(first), model.sellerIndex(second));
+            assertEquals(model.amount(first), model.amount(second));
+            assertEquals(model.transactionDate(first), model.transactionDate(second));
+        }
+    }
+
+    @Test
+    void testSellerPopularity_Skewed() {
+        SplittableRandom random = model.random(0);
+        int[] hits = new int[100];
+        for (int i = 0; i < 100_000; i++) {
+            hits[model.sellerIndex(random)]++;
+        }
+
+        int max = 0;
+        int min = Integer.MAX_VALUE;
+        for (int count : hits) {
+            max = Math.max(max, count);
+            min = Math.min(min, count);
+        }
+        // при равномерном выборе было бы ~1000 на продавца
+        assertTrue(max > 10_000, "top seller hits: " + max);
+        assertTrue(min < 500, "least popular seller hits: " + min);
+    }
+
+    @Test
+    void testTransactionDate_WithinPeriodAndDiurnal() {
+        SplittableRandom random = model.random(0);
+        int night = 0;
+        int evening = 0;
+        for (int i = 0; i < 100_000; i++) {
+            LocalDateTime date = model.transactionDate(random);
+            assertFalse(date.toLocalDate().isBefore(FIRST_DAY));
+            assertTrue(date.toLocalDate().isBefore(FIRST_DAY.plusDays(30)));
+            if (date.getHour() == 3) {
+                night++;
+            } else if (date.getHour() == 18) {
+                evening++;
+            }
+        }
+        assertTrue(evening > night * 10, "evening " + evening + ", night " + night);
+    }
+
+    @Test
+    void testAmountAndPaymentMix() {
+        SplittableRandom random = model.random(0);
+        int cards = 0;
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal amount = model.amount(random);
+            assertEquals(2, amount.scale());
+            assertTrue(amount.compareTo(BigDecimal.ONE) >= 0);
+            if (model.paymentType(random) == Transaction.PaymentType.CARD) {
+                cards++;
+            }
+        }
+        assertTrue(cards > 6_500 && cards < 7_500, "card payments: " + cards);
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticSalesModel(42, 0, 1.1, FIRST_DAY, 30, 0.7));
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticSalesModel(42, 10, 1.1, FIRST_DAY, 0, 0.7));
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticSalesModel(42, 10, 1.1, FIRST_DAY, 30, 1.5));
+    }
+}
@@ -0,0 +1,33 @@
+package ru.shift.zverev.crm_system.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TransactionPartitionSchedulerTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void testCreateUpcomingPartitions_CurrentAndAheadMonths() {
+        Clock clock = Clock.fixed(Instant.parse("2024-11-20T10:00:00Z"), ZoneOffset.UTC);
+        TransactionPartitionScheduler scheduler = new TransactionPartitionScheduler(jdbcTemplate, clock, 2);
+
+        scheduler.createUpcomingPartitions();
+
+        verify(jdbcTemplate).queryForObject(anyString(), eq(String.class), eq(LocalDate.of(2024, 11, 1)));
+        verify(jdbcTemplate).queryForObject(anyString(), eq(String.class), eq(LocalDate.of(2024, 12, 1)));
+        verify(jdbcTemplate).queryForObject(anyString(), eq(String.class), eq(LocalDate.of(2025, 1, 1)));
+        verify(jdbcTemplate, times(3)).queryForObject(eq("SELECT create_transactions_partition(?)"),
+                eq(String.class), any(Object[].class));
+    }
+}
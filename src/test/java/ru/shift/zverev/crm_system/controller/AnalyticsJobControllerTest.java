@@ -0,0 +1,112 @@
+package ru.shift.zverev.crm_system.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.shift.zverev.crm_system.dto.AnalyticsJobDto;
+import ru.shift.zverev.crm_system.dto.AnalyticsJobRequest;
+import ru.shift.zverev.crm_system.service.AnalyticsJobServiceInterface;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AnalyticsJobControllerTest {
+
+    private static final String STATISTICS_JOB =
+            "{\"type\": \"statistics\", \"startDate\": \"2024-01-01T00:00:00\", \"endDate\": \"2024-03-01T00:00:00\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AnalyticsJobServiceInterface analyticsJobService;
+
+    @Test
+    void testSubmitJob_Accepted() throws Exception {
+        when(analyticsJobService.submit(any(AnalyticsJobRequest.class))).thenReturn(job("QUEUED"));
+
+        mockMvc.perform(post("/api/analytics/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(STATISTICS_JOB))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/analytics/jobs/job-1"))
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+
+        verify(analyticsJobService).submit(argThat(request -> "statistics".equals(request.getType())
+                && LocalDateTime.of(2024, 1, 1, 0, 0).equals(request.getStartDate())));
+    }
+
+    @Test
+    void testSubmitJob_MissingType() throws Exception {
+        mockMvc.perform(post("/api/analytics/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"startDate\": \"2024-01-01T00:00:00\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fieldErrors.type").value("report type is mandatory"));
+
+        verifyNoInteractions(analyticsJobService);
+    }
+
+    @Test
+    void testSubmitJob_QueueFull() throws Exception {
+        when(analyticsJobService.submit(any(AnalyticsJobRequest.class)))
+                .thenThrow(new RejectedExecutionException("Analytics job queue is full, retry later"));
+
+        mockMvc.perform(post("/api/analytics/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(STATISTICS_JOB))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Analytics job queue is full, retry later"));
+    }
+
+    @Test
+    void testGetJob_Found() throws Exception {
+        AnalyticsJobDto finished = job("SUCCEEDED");
+        finished.setResult(42);
+        when(analyticsJobService.getById("job-1")).thenReturn(Optional.of(finished));
+
+        mockMvc.perform(get("/api/analytics/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUCCEEDED"))
+                .andExpect(jsonPath("$.result").value(42));
+    }
+
+    @Test
+    void testGetJob_NotFoundOrExpired() throws Exception {
+        when(analyticsJobService.getById("job-2")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/analytics/jobs/job-2"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCancelJob() throws Exception {
+        when(analyticsJobService.cancel("job-1")).thenReturn(Optional.of(job("CANCELLED")));
+        when(analyticsJobService.cancel("job-2")).thenReturn(Optional.empty());
+
+        mockMvc.perform(delete("/api/analytics/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+        mockMvc.perform(delete("/api/analytics/jobs/job-2"))
+                .andExpect(status().isNotFound());
+    }
+
+    private AnalyticsJobDto job(String status) {
+        return new AnalyticsJobDto("job-1", "statistics", status, LocalDateTime.of(2024, 3, 1, 12, 0),
+                null, null, null, null);
+    }
+}
@@ -0,0 +1,162 @@
+package ru.shift.zverev.crm_system.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Число SQL-операторов на вызов каждого endpoint: рост означает новый N+1 или лишнюю загрузку продавца.
+// Считается по статистике Hibernate (prepareStatementCount), поэтому у теста своя база.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statements",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ControllerStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private long firstSellerId;
+    private long secondSellerId;
+    private long transactionId;
+
+    @BeforeAll
+    void setUp() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        firstSellerId = createSeller("Иван Иванов");
+        secondSellerId = createSeller("Мария Петрова");
+        transactionId = createTransaction(firstSellerId, "100.00");
+        createTransaction(firstSellerId, "250.00");
+        createTransaction(secondSellerId, "75.00");
+    }
+
+    @Test
+    void testSellerReadEndpoints() throws Exception {
+        assertEquals(1, statements(get("/api/sellers")));
+        assertEquals(1, statements(get("/api/sellers/" + firstSellerId)));
+        assertEquals(1, statements(get("/api/sellers/analytics/most-productive")));
+        assertEquals(1, statements(get("/api/sellers/analytics/most-productive/30")));
+        assertEquals(1, statements(get("/api/sellers/analytics/top?n=10")));
+        assertEquals(1, statements(get("/api/sellers/analytics/low-performance?limit=1000")));
+        assertEquals(1, statements(get("/api/sellers/analytics/most-productive-time/" + firstSellerId + "/7")));
+    }
+
+    @Test
+    void testNotModifiedSkipsDatabase() throws Exception {
+        for (String uri : new String[]{"/api/sellers", "/api/sellers/" + firstSellerId, "/api/sellers/analytics/top?n=10"}) {
+            String etag = mockMvc.perform(get(uri)).andReturn().getResponse().getHeader("ETag");
+            statistics.clear();
+            mockMvc.perform(get(uri).header("If-None-Match", etag)).andExpect(status().isNotModified());
+            assertEquals(0, statistics.getPrepareStatementCount());
+        }
+    }
+
+    @Test
+    void testTransactionReadEndpoints() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        String period = "startDate=" + now.minusDays(10) + "&endDate=" + now.plusMinutes(1);
+
+        assertEquals(1, statements(get("/api/transactions")));
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1, statements(get("/api/transactions/" + transactionId)));
+        assertEquals(1, statements(get("/api/transactions/seller/" + firstSellerId)));
+        assertEquals(1, statements(get("/api/transactions/export")));
+        assertEquals(0, statistics.getEntityLoadCount());
+        // итог за всё время и сводка берутся из in-memory итогов
+        assertEquals(0, statements(get("/api/transactions/analytics/total/" + firstSellerId)));
+        assertEquals(0, statements(get("/api/transactions/analytics/summary/" + firstSellerId)));
+        // полные дни из seller_daily_sales, неполные первый и последний день - из transactions
+        assertEquals(3, statements(get("/api/transactions/analytics/total/" + firstSellerId + "?" + period)));
+        // итоги и разбивка по типам оплаты
+        assertEquals(2, statements(get("/api/transactions/analytics/statistics?" + period)));
+    }
+
+    @Test
+    void testWriteEndpoints() throws Exception {
+        long sellerId = createSeller("Петр Сидоров");
+        long emptySellerId = createSeller("Анна Смирнова");
+        // в H2 каждое изменение дневного среза - два оператора (блокировка продавца + MERGE),
+        // в PostgreSQL - один INSERT ... ON CONFLICT
+
+        assertEquals(1, statements(post("/api/sellers")
+                .contentType(MediaType.APPLICATION_JSON).content(seller("Ольга Кузнецова"))));
+        assertEquals(2, statements(put("/api/sellers/" + sellerId)
+                .contentType(MediaType.APPLICATION_JSON).content(seller("Петр Петров"))));
+        assertEquals(3, statements(post("/api/transactions")
+                .contentType(MediaType.APPLICATION_JSON).content(transaction(sellerId, "10.00", "CARD"))));
+        assertEquals(6, statements(post("/api/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + transaction(sellerId, "10.00", "CARD") + "," + transaction(sellerId, "20.00", "CASH") + "]")));
+
+        // продавец в изменении и удалении - прокси: загружается только сама транзакция;
+        // итог продавца после вычитания граничной суммы перечитывается при следующем чтении, а не после коммита
+        long id = createTransaction(sellerId, "30.00");
+        assertEquals(6, statements(put("/api/transactions/" + id)
+                .contentType(MediaType.APPLICATION_JSON).content(transaction(sellerId, "40.00", "CASH"))));
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertEquals(4, statements(delete("/api/transactions/" + id)));
+        assertEquals(1, statistics.getEntityLoadCount());
+
+        assertEquals(3, statements(delete("/api/sellers/" + emptySellerId)));
+    }
+
+    private long statements(MockHttpServletRequestBuilder request) throws Exception {
+        statistics.clear();
+        MvcResult result = mockMvc.perform(request).andExpect(status().is2xxSuccessful()).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long createSeller(String name) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/sellers").contentType(MediaType.APPLICATION_JSON)
+                        .content(seller(name)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+
+    private long createTransaction(long sellerId, String amount) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/transactions").contentType(MediaType.APPLICATION_JSON)
+                        .content(transaction(sellerId, amount, "CARD")))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+
+    private String seller(String name) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("name", name));
+    }
+
+    private String transaction(long sellerId, String amount, String paymentType) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("sellerId", sellerId, "amount", amount, "paymentType", paymentType));
+    }
+}
@@ -12,11 +12,21 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.antlr.v4.runtime.misc.Pair;
+import ru.shift.zverev.crm_system.cache.DataVersions;
+import ru.shift.zverev.crm_system.dto.CursorPage;
+import ru.shift.zverev.crm_system.dto.SalesMetric;
+import ru.shift.zverev.crm_system.dto.SellerDto;
+import ru.shift.zverev.crm_system.dto.SellerRankDto;
 import ru.shift.zverev.crm_system.dto.SellerRequest;
+import ru.shift.zverev.crm_system.dto.SellerSalesTotalDto;
 import ru.shift.zverev.crm_system.model.Seller;
+import ru.shift.zverev.crm_system.service.PageCursor;
+import ru.shift.zverev.crm_system.service.SellerService;
 import ru.shift.zverev.crm_system.service.SellerServiceInterface;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -24,6 +34,8 @@ import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -42,6 +54,9 @@ class SellerControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private DataVersions dataVersions;
+
     private Seller testSeller;
     private SellerRequest testSellerRequest;
     private LocalDateTime testDate;
@@ -62,25 +77,26 @@ class SellerControllerTest {
     @Test
     void testGetAllSellers() throws Exception {
         
-        List<Seller> sellers = Arrays.asList(testSeller);
-        when(sellerService.getAll()).thenReturn(sellers);
+        CursorPage<SellerDto> page = new CursorPage<>(Arrays.asList(SellerService.toDto(testSeller)), "next");
+        when(sellerService.getPage(null, 50)).thenReturn(page);
 
         
         mockMvc.perform(get("/api/sellers"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].name").value("Тест Продавец"))
-                .andExpect(jsonPath("$[0].contactInfo").value("test@example.com"));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Тест Продавец"))
+                .andExpect(jsonPath("$.items[0].contactInfo").value("test@example.com"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
 
-        verify(sellerService).getAll();
+        verify(sellerService).getPage(null, 50);
     }
 
     @Test
     void testGetSellerById_Found() throws Exception {
         
-        when(sellerService.getById(1L)).thenReturn(Optional.of(testSeller));
+        when(sellerService.getById(1L)).thenReturn(Optional.of(SellerService.toDto(testSeller)));
 
         
         mockMvc.perform(get("/api/sellers/1"))
@@ -105,6 +121,85 @@ class SellerControllerTest {
         verify(sellerService).getById(999L);
     }
 
+    @Test
+    void testGetAllSellers_NotModifiedSkipsService() throws Exception {
+        when(sellerService.getPage(null, 50)).thenReturn(new CursorPage<>(List.of(SellerService.toDto(testSeller)), null));
+
+        String etag = mockMvc.perform(get("/api/sellers"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/sellers").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        verify(sellerService, times(1)).getPage(null, 50);
+    }
+
+    @Test
+    void testGetSellerById_ModifiedAfterSellerChange() throws Exception {
+        when(sellerService.getById(1L)).thenReturn(Optional.of(SellerService.toDto(testSeller)));
+        String etag = mockMvc.perform(get("/api/sellers/1"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        dataVersions.sellersChanged();
+
+        mockMvc.perform(get("/api/sellers/1").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+        verify(sellerService, times(2)).getById(1L);
+    }
+
+    @Test
+    void testAnalyticsTagFollowsTransactions() throws Exception {
+        when(sellerService.getMostProductiveSellerOfAllTime()).thenReturn(testSeller);
+        String sellersTag = mockMvc.perform(get("/api/sellers/1"))
+                .andReturn().getResponse().getHeader("ETag");
+        String analyticsTag = mockMvc.perform(get("/api/sellers/analytics/most-productive"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        dataVersions.transactionsChanged();
+
+        mockMvc.perform(get("/api/sellers/analytics/most-productive").header("If-None-Match", analyticsTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/sellers/1").header("If-None-Match", sellersTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testInvalidParametersRejectedBeforeETag() throws Exception {
+        when(sellerService.getTopSellers(anyInt(), any(), any(), any())).thenReturn(List.of());
+        when(sellerService.getPage(null, 50)).thenReturn(new CursorPage<>(List.of(), null));
+        String analyticsTag = mockMvc.perform(get("/api/sellers/analytics/top"))
+                .andReturn().getResponse().getHeader("ETag");
+        String sellersTag = mockMvc.perform(get("/api/sellers"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/sellers/analytics/top").param("n", "0").header("If-None-Match", analyticsTag))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/sellers/analytics/top").param("metric", "bogus").header("If-None-Match", analyticsTag))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/sellers/analytics/top")
+                        .param("from", "2024-03-02T00:00:00")
+                        .param("to", "2024-03-01T00:00:00")
+                        .header("If-None-Match", analyticsTag))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/sellers/analytics/low-performance")
+                        .param("limit", "100")
+                        .param("after", "!!")
+                        .header("If-None-Match", analyticsTag))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/sellers/analytics/most-productive-time/1/0").header("If-None-Match", analyticsTag))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/sellers").param("limit", "0").header("If-None-Match", sellersTag))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/sellers/analytics/top").header("If-None-Match", analyticsTag))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     void testCreateSeller_Valid() throws Exception {
         
@@ -198,22 +293,83 @@ class SellerControllerTest {
         verify(sellerService).getMostProductiveSellerByPeriod(30);
     }
 
+    @Test
+    void testGetMostProductiveTime_ByAmount() throws Exception {
+        when(sellerService.getMostProductiveTimeById(1L, 7L, SalesMetric.AMOUNT))
+                .thenReturn(new Pair<>(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 7)));
+
+        mockMvc.perform(get("/api/sellers/analytics/most-productive-time/1/7")
+                .param("metric", "amount"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.a").value("2024-03-01"))
+                .andExpect(jsonPath("$.b").value("2024-03-07"));
+
+        verify(sellerService).getMostProductiveTimeById(1L, 7L, SalesMetric.AMOUNT);
+    }
+
+    @Test
+    void testGetMostProductiveTime_InvalidMetric() throws Exception {
+        mockMvc.perform(get("/api/sellers/analytics/most-productive-time/1/7")
+                .param("metric", "profit"))
+                .andExpect(status().isBadRequest());
+
+        verify(sellerService, never()).getMostProductiveTimeById(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testGetTopSellers() throws Exception {
+        SellerRankDto first = new SellerRankDto(1, 1L, "Тест Продавец", "test@example.com", testDate,
+                new BigDecimal("900.00"), 12);
+        when(sellerService.getTopSellers(eq(5), any(), any(), eq(SalesMetric.COUNT))).thenReturn(List.of(first));
+
+        mockMvc.perform(get("/api/sellers/analytics/top")
+                .param("n", "5")
+                .param("metric", "count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].rank").value(1))
+                .andExpect(jsonPath("$[0].sellerId").value(1))
+                .andExpect(jsonPath("$[0].totalAmount").value(900.00))
+                .andExpect(jsonPath("$[0].transactionCount").value(12));
+
+        verify(sellerService).getTopSellers(eq(5), isNull(), isNull(), eq(SalesMetric.COUNT));
+    }
+
     @Test
     void testGetSellersWithLowPerformance() throws Exception {
-        
-        List<Seller> lowPerformers = Arrays.asList(testSeller);
+        SellerSalesTotalDto lowPerformer = new SellerSalesTotalDto(1L, "Тест Продавец", "test@example.com",
+                testDate, new BigDecimal("40.00"));
         BigDecimal limit = new BigDecimal("100.00");
-        when(sellerService.getSellersAmountLessThan(limit)).thenReturn(lowPerformers);
+        when(sellerService.getSellersAmountLessThan(limit, null, null, null, 50))
+                .thenReturn(new CursorPage<>(List.of(lowPerformer), null));
 
         
         mockMvc.perform(get("/api/sellers/analytics/low-performance")
                 .param("limit", "100.00"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].name").value("Тест Продавец"));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Тест Продавец"))
+                .andExpect(jsonPath("$.items[0].totalAmount").value(40.00));
+
+        verify(sellerService).getSellersAmountLessThan(limit, null, null, null, 50);
+    }
 
-        verify(sellerService).getSellersAmountLessThan(any(BigDecimal.class));
+    @Test
+    void testGetSellersWithLowPerformance_ForPeriod() throws Exception {
+        String after = PageCursor.encode(5L);
+        when(sellerService.getSellersAmountLessThan(any(BigDecimal.class), any(LocalDateTime.class),
+                any(LocalDateTime.class), eq(after), eq(10))).thenReturn(new CursorPage<>(List.of(), null));
+
+        mockMvc.perform(get("/api/sellers/analytics/low-performance")
+                .param("limit", "100.00")
+                .param("startDate", "2024-01-01T00:00:00")
+                .param("endDate", "2024-02-01T00:00:00")
+                .param("after", after)
+                .param("size", "10"))
+                .andExpect(status().isOk());
+
+        verify(sellerService).getSellersAmountLessThan(new BigDecimal("100.00"), LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 2, 1, 0, 0), after, 10);
     }
 }
@@ -14,6 +14,14 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.shift.zverev.crm_system.dto.CursorPage;
+import ru.shift.zverev.crm_system.dto.PaymentTypeStatisticsDto;
+import ru.shift.zverev.crm_system.dto.SalesStatisticsDto;
+import ru.shift.zverev.crm_system.dto.SellerSalesSummaryDto;
+import ru.shift.zverev.crm_system.dto.TransactionBatchItemResult;
+import ru.shift.zverev.crm_system.dto.TransactionBatchResponse;
+import ru.shift.zverev.crm_system.dto.TransactionDto;
 import ru.shift.zverev.crm_system.dto.TransactionRequest;
 import ru.shift.zverev.crm_system.model.Seller;
 import ru.shift.zverev.crm_system.model.Transaction;
@@ -23,14 +31,20 @@ import ru.shift.zverev.crm_system.service.TransactionService;
 import ru.shift.zverev.crm_system.service.TransactionServiceInterface;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -79,25 +93,85 @@ class TransactionControllerTest {
     @Test
     void testGetAllTransactions() throws Exception {
         
-        List<Transaction> transactions = Arrays.asList(testTransaction);
-        when(transactionService.getAll()).thenReturn(transactions);
+        CursorPage<TransactionDto> page = new CursorPage<>(Arrays.asList(TransactionService.toDto(testTransaction)), "next");
+        when(transactionService.getPage(null, 50)).thenReturn(page);
 
         
         mockMvc.perform(get("/api/transactions"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].amount").value(100.00))
-                .andExpect(jsonPath("$[0].paymentType").value("CARD"));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].amount").value(100.00))
+                .andExpect(jsonPath("$.items[0].paymentType").value("CARD"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
 
-        verify(transactionService).getAll();
+        verify(transactionService).getPage(null, 50);
+    }
+
+    @Test
+    void testGetAllTransactions_WithCursor() throws Exception {
+        
+        CursorPage<TransactionDto> page = new CursorPage<>(Arrays.asList(TransactionService.toDto(testTransaction)), null);
+        when(transactionService.getPage("abc", 10)).thenReturn(page);
+
+        
+        mockMvc.perform(get("/api/transactions")
+                .param("after", "abc")
+                .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(transactionService).getPage("abc", 10);
+    }
+
+    @Test
+    void testGetAllTransactions_InvalidCursor() throws Exception {
+        
+        when(transactionService.getPage("bad", 50)).thenThrow(new IllegalArgumentException("Invalid cursor: bad"));
+
+        
+        mockMvc.perform(get("/api/transactions").param("after", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportTransactions() throws Exception {
+        
+        TransactionDto first = TransactionService.toDto(testTransaction);
+        TransactionDto second = new TransactionDto(2L, 1L, testSeller.getName(), new BigDecimal("50.00"),
+                Transaction.PaymentType.CASH, testDate);
+        doAnswer(invocation -> {
+            Consumer<TransactionDto> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(transactionService).exportAll(any(Consumer.class));
+
+        
+        MvcResult result = mockMvc.perform(get("/api/transactions/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readTree(lines[0]).get("id").asLong());
+        assertEquals("CASH", objectMapper.readTree(lines[1]).get("paymentType").asText());
+        assertTrue(lines[1].startsWith("{"));
+        assertEquals(objectMapper.writeValueAsString(first) + "\n" + objectMapper.writeValueAsString(second) + "\n", body);
     }
 
     @Test
     void testGetTransactionById_Found() throws Exception {
         
-        when(transactionService.getById(1L)).thenReturn(Optional.of(testTransaction));
+        when(transactionService.getById(1L)).thenReturn(Optional.of(TransactionService.toDto(testTransaction)));
 
         
         mockMvc.perform(get("/api/transactions/1"))
@@ -125,7 +199,7 @@ class TransactionControllerTest {
     @Test
     void testCreateTransaction_Valid() throws Exception {
         
-        when(sellerService.getById(1L)).thenReturn(Optional.of(testSeller));
+        when(sellerService.getReferenceById(1L)).thenReturn(testSeller);
         when(transactionService.create(any(Transaction.class))).thenReturn(testTransaction);
 
         
@@ -139,6 +213,22 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.paymentType").value("CARD"));
 
         verify(transactionService).create(any(Transaction.class));
+        verify(sellerService, never()).getById(anyLong());
+    }
+
+    @Test
+    void testCreateTransaction_UnknownSeller() throws Exception {
+        
+        when(sellerService.getReferenceById(1L)).thenThrow(new IllegalArgumentException("Seller not found with id: 1"));
+
+        
+        mockMvc.perform(post("/api/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testTransactionRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Seller not found with id: 1"));
+
+        verify(transactionService, never()).create(any());
     }
 
     @Test
@@ -158,11 +248,35 @@ class TransactionControllerTest {
         verify(transactionService, never()).create(any());
     }
 
+    @Test
+    void testCreateTransactionsBatch() throws Exception {
+        
+        TransactionBatchResponse response = new TransactionBatchResponse(List.of(
+                TransactionBatchItemResult.created(0, 1L),
+                TransactionBatchItemResult.rejected(1, "Seller not found with id: 2")));
+        when(transactionService.createBatch(anyList())).thenReturn(response);
+
+        
+        mockMvc.perform(post("/api/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(testTransactionRequest, testTransactionRequest))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].id").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$.results[1].error").value("Seller not found with id: 2"));
+
+        verify(transactionService).createBatch(anyList());
+        verify(sellerService, never()).getById(anyLong());
+    }
+
     @Test
     void testUpdateTransaction() throws Exception {
         
         when(transactionService.update(eq(1L), any(Transaction.class))).thenReturn(testTransaction);
-        when(sellerService.getById(1L)).thenReturn(Optional.of(testSeller));
+        when(sellerService.getReferenceById(1L)).thenReturn(testSeller);
 
         
         mockMvc.perform(put("/api/transactions/1")
@@ -191,18 +305,18 @@ class TransactionControllerTest {
     @Test
     void testGetTransactionsBySeller() throws Exception {
         
-        List<Transaction> transactions = Arrays.asList(testTransaction);
-        when(transactionService.getTransactionsBySellerId(1L)).thenReturn(transactions);
+        CursorPage<TransactionDto> page = new CursorPage<>(Arrays.asList(TransactionService.toDto(testTransaction)), null);
+        when(transactionService.getTransactionsPageBySellerId(1L, null, null, null, 50)).thenReturn(page);
 
         
         mockMvc.perform(get("/api/transactions/seller/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].sellerId").value(1));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].sellerId").value(1));
 
-        verify(transactionService).getTransactionsBySellerId(1L);
+        verify(transactionService).getTransactionsPageBySellerId(1L, null, null, null, 50);
     }
 
     @Test
@@ -221,14 +335,32 @@ class TransactionControllerTest {
     }
 
     @Test
-    void testGetSalesStatistics() throws Exception {
+    void testGetSalesSummaryBySeller() throws Exception {
+        
+        SellerSalesSummaryDto summary = new SellerSalesSummaryDto(1L, new BigDecimal("500.00"), 4,
+                new BigDecimal("50.00"), new BigDecimal("200.00"), testDate);
+        when(transactionService.getSalesSummaryBySellerId(1L)).thenReturn(summary);
+
         
-        Map<String, BigDecimal> statistics = new HashMap<>();
-        statistics.put("totalSales", new BigDecimal("1000.00"));
-        statistics.put("transactionCount", new BigDecimal("5"));
+        mockMvc.perform(get("/api/transactions/analytics/summary/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalAmount").value(500.00))
+                .andExpect(jsonPath("$.transactionCount").value(4))
+                .andExpect(jsonPath("$.maxAmount").value(200.00));
+
+        verify(transactionService).getSalesSummaryBySellerId(1L);
+    }
+
+    @Test
+    void testGetSalesStatistics() throws Exception {
         
         LocalDateTime start = LocalDateTime.now().minusDays(7);
         LocalDateTime end = LocalDateTime.now();
+        Map<Transaction.PaymentType, PaymentTypeStatisticsDto> byPaymentType = new EnumMap<>(Transaction.PaymentType.class);
+        byPaymentType.put(Transaction.PaymentType.CARD, new PaymentTypeStatisticsDto(3, new BigDecimal("800.00")));
+        byPaymentType.put(Transaction.PaymentType.CASH, new PaymentTypeStatisticsDto(2, new BigDecimal("200.00")));
+        SalesStatisticsDto statistics = new SalesStatisticsDto(start, end, new BigDecimal("1000.00"), 5, 2,
+                new BigDecimal("200.00"), new BigDecimal("50.00"), new BigDecimal("400.00"), byPaymentType);
         
         when(transactionService.getSalesStatisticsByPeriod(any(), any())).thenReturn(statistics);
 
@@ -239,7 +371,11 @@ class TransactionControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.totalSales").value(1000.00))
-                .andExpect(jsonPath("$.transactionCount").value(5));
+                .andExpect(jsonPath("$.transactionCount").value(5))
+                .andExpect(jsonPath("$.sellerCount").value(2))
+                .andExpect(jsonPath("$.averageAmount").value(200.00))
+                .andExpect(jsonPath("$.byPaymentType.CARD.transactionCount").value(3))
+                .andExpect(jsonPath("$.byPaymentType.CASH.totalAmount").value(200.00));
 
         verify(transactionService).getSalesStatisticsByPeriod(any(), any());
     }
@@ -0,0 +1,108 @@
+package ru.shift.zverev.crm_system.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class SchemaIndexTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testH2_TransactionIndexesExist() {
+        assertEquals(List.of("SELLER_ID", "TRANSACTION_DATE", "AMOUNT"), indexColumns("IDX_TRANSACTIONS_SELLER_DATE"));
+        assertEquals(List.of("TRANSACTION_DATE"), indexColumns("IDX_TRANSACTIONS_DATE"));
+    }
+
+    @Test
+    void testH2_MigrationsApplied() {
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"success\" ORDER BY \"installed_rank\"",
+                String.class);
+
+        assertTrue(versions.containsAll(List.of("1", "2", "4")));
+    }
+
+    @Test
+    void testPostgresMigration_DeclaresCoveringIndexes() throws IOException {
+        String script = normalized("db/migration/postgresql/V2__transaction_indexes.sql");
+
+        assertTrue(script.contains(
+                "create index if not exists idx_transactions_seller_date on transactions (seller_id, transaction_date) include (amount)"));
+        assertTrue(script.contains(
+                "create index if not exists idx_transactions_date on transactions (transaction_date)"));
+    }
+
+    @Test
+    void testPostgresMigration_PartitionsTransactionsByMonth() throws IOException {
+        String script = normalized("db/migration/postgresql/V3__partition_transactions_by_month.sql");
+
+        assertTrue(script.contains("partition by range (transaction_date)"));
+        assertTrue(script.contains("primary key (id, transaction_date)"));
+        assertTrue(script.contains("partition of transactions default"));
+        assertTrue(script.contains(
+                "create index idx_transactions_seller_date on transactions (seller_id, transaction_date) include (amount)"));
+        assertFalse(new ClassPathResource("db/migration/h2/V3__partition_transactions_by_month.sql").exists());
+    }
+
+    @Test
+    void testH2Migration_DeclaresIndexes() throws IOException {
+        String script = normalized("db/migration/h2/V2__transaction_indexes.sql");
+
+        assertTrue(script.contains(
+                "create index idx_transactions_seller_date on transactions (seller_id, transaction_date, amount)"));
+        assertTrue(script.contains("create index idx_transactions_date on transactions (transaction_date)"));
+    }
+
+    @Test
+    void testFillMigration_RebuildsEmptyRollupFromExistingTransactions() {
+        // база, подхваченная после ddl-auto: транзакции есть, срез пуст
+        String url = "jdbc:h2:mem:adopted;DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration/h2")
+                .target("2").load().migrate();
+        JdbcTemplate adopted = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        adopted.update("INSERT INTO sellers (id, name, registration_date) VALUES (1, 'Иван Иванов', CURRENT_TIMESTAMP)");
+        adopted.update("INSERT INTO transactions (id, seller_id, amount, payment_type, transaction_date) VALUES " +
+                "(1, 1, 100.00, 'CARD', TIMESTAMP '2024-03-10 09:00:00'), " +
+                "(2, 1, 50.00, 'CARD', TIMESTAMP '2024-03-10 23:59:59'), " +
+                "(3, 1, 30.00, 'CASH', TIMESTAMP '2024-03-11 00:00:00')");
+
+        Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration/h2").load().migrate();
+
+        assertEquals(List.of("2024-03-10 CARD 150.00 2", "2024-03-11 CASH 30.00 1"), adopted.queryForList(
+                "SELECT sales_day || ' ' || payment_type || ' ' || amount_sum || ' ' || tx_count " +
+                        "FROM seller_daily_sales ORDER BY sales_day", String.class));
+    }
+
+    @Test
+    void testFillMigration_KeepsNonEmptyRollup() throws IOException {
+        for (String path : List.of("db/migration/postgresql/V4__fill_seller_daily_sales.sql",
+                "db/migration/h2/V4__fill_seller_daily_sales.sql")) {
+            assertTrue(normalized(path).contains("where not exists (select 1 from seller_daily_sales)"));
+        }
+    }
+
+    private List<String> indexColumns(String indexName) {
+        return jdbcTemplate.queryForList(
+                "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS " +
+                        "WHERE TABLE_NAME = 'TRANSACTIONS' AND INDEX_NAME = ? ORDER BY ORDINAL_POSITION",
+                String.class, indexName);
+    }
+
+    private String normalized(String path) throws IOException {
+        String script = new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8);
+        return script.toLowerCase().replaceAll("\\s+", " ");
+    }
+}
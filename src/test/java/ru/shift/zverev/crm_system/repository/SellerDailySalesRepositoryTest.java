@@ -0,0 +1,179 @@
+package ru.shift.zverev.crm_system.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.shift.zverev.crm_system.dto.SalesMetric;
+import ru.shift.zverev.crm_system.dto.SellerRankDto;
+import ru.shift.zverev.crm_system.model.Seller;
+import ru.shift.zverev.crm_system.model.Transaction;
+import ru.shift.zverev.crm_system.service.SalesRollupService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(SalesRollupService.class)
+class SellerDailySalesRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SellerDailySalesRepository dailySalesRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    private Seller seller1;
+    private Seller seller2;
+    private LocalDate day;
+
+    @BeforeEach
+    void setUp() {
+        day = LocalDate.of(2024, 3, 10);
+        seller1 = entityManager.persist(new Seller("Иван Иванов", day.minusMonths(1).atStartOfDay()));
+        seller2 = entityManager.persist(new Seller("Мария Петрова", day.minusMonths(1).atStartOfDay()));
+
+        persistTransaction(seller1, "100.00", Transaction.PaymentType.CARD, day.atTime(9, 30));
+        persistTransaction(seller1, "50.00", Transaction.PaymentType.CARD, day.atTime(18, 0));
+        persistTransaction(seller1, "20.00", Transaction.PaymentType.CASH, day.plusDays(1).atTime(0, 0));
+        persistTransaction(seller1, "300.00", Transaction.PaymentType.CASH, day.plusDays(2).atTime(13, 15));
+        persistTransaction(seller2, "75.00", Transaction.PaymentType.CARD, day.plusDays(1).atTime(23, 59, 59));
+        persistTransaction(seller2, "10.00", Transaction.PaymentType.CASH, day.plusDays(3).atTime(8, 0));
+        entityManager.flush();
+
+        dailySalesRepository.rebuildFromTransactions();
+        entityManager.clear();
+    }
+
+    @Test
+    void testRebuildFromTransactions_GroupsBySellerDayAndPaymentType() {
+        assertEquals(6L, dailySalesRepository.countRolledUpTransactions());
+        assertEquals(5, dailySalesRepository.count());
+
+        List<Object[]> daily = dailySalesRepository.findDailyTotalsBySellerId(seller1.getId());
+        assertEquals(3, daily.size());
+        assertEquals(day, daily.get(0)[0]);
+        assertEquals(2L, ((Number) daily.get(0)[1]).longValue());
+        assertEquals(0, new BigDecimal("150.00").compareTo((BigDecimal) daily.get(0)[2]));
+    }
+
+    @Test
+    void testRecord_AddsToExistingBucketAndCreatesMissingOne() {
+        salesRollupService.record(seller1.getId(), day.atTime(20, 0), Transaction.PaymentType.CARD,
+                new BigDecimal("25.00"), 1);
+        salesRollupService.record(seller1.getId(), day.plusDays(5).atTime(10, 0), Transaction.PaymentType.CARD,
+                new BigDecimal("40.00"), 1);
+        entityManager.clear();
+
+        assertEquals(0, new BigDecimal("175.00").compareTo(
+                dailySalesRepository.getTotalAmountBySellerIdAndDays(seller1.getId(), day, day)));
+        assertEquals(0, new BigDecimal("40.00").compareTo(
+                dailySalesRepository.getTotalAmountBySellerIdAndDays(seller1.getId(), day.plusDays(5), day.plusDays(5))));
+        assertEquals(8L, dailySalesRepository.countRolledUpTransactions());
+    }
+
+    @Test
+    void testRecord_DerivesDayLikeRebuildOutsideUtc() {
+        // JDBC работает в UTC (hibernate.jdbc.time_zone): в зоне JVM UTC+9 местная дата и дата в БД расходятся
+        TimeZone jvmZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+        try {
+            for (LocalDateTime date : List.of(day.plusDays(7).atTime(3, 0), day.plusDays(8).atTime(10, 0))) {
+                persistTransaction(seller1, "60.00", Transaction.PaymentType.CARD, date);
+                salesRollupService.record(seller1.getId(), date, Transaction.PaymentType.CARD, new BigDecimal("60.00"), 1);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            List<String> recorded = rollupRows();
+
+            salesRollupService.rebuild();
+            entityManager.clear();
+
+            assertEquals(rollupRows(), recorded);
+        } finally {
+            TimeZone.setDefault(jvmZone);
+        }
+    }
+
+    @Test
+    void testDeleteAllRows() {
+        dailySalesRepository.deleteAllRows();
+
+        assertEquals(0L, dailySalesRepository.countRolledUpTransactions());
+    }
+
+    @Test
+    void testPlannedTotals_MatchRawTransactions() {
+        List<LocalDateTime[]> periods = List.of(
+                new LocalDateTime[]{day.atTime(12, 0), day.plusDays(2).atTime(14, 0)},
+                new LocalDateTime[]{day.atStartOfDay(), day.plusDays(3).atStartOfDay()},
+                new LocalDateTime[]{day.atTime(9, 30), day.atTime(18, 0)},
+                new LocalDateTime[]{day.plusDays(1).atStartOfDay(), day.plusDays(1).atTime(23, 59, 59)},
+                new LocalDateTime[]{day.minusDays(5).atTime(7, 0), day.plusDays(10).atTime(7, 0)});
+
+        for (LocalDateTime[] period : periods) {
+            for (Seller seller : List.of(seller1, seller2)) {
+                BigDecimal raw = transactionRepository.getTotalAmountBySellerIdAndPeriod(
+                        seller.getId(), period[0], period[1]);
+                BigDecimal planned = salesRollupService.getTotalAmountBySellerIdAndPeriod(
+                        seller.getId(), period[0], period[1]);
+                assertEquals(0, raw.compareTo(planned), "period " + period[0] + " - " + period[1]);
+            }
+
+            List<SellerRankDto> planned = salesRollupService.getTopSellers(period[0], period[1], 10, SalesMetric.AMOUNT);
+            List<Object[]> raw = transactionRepository.findTopSellersByPeriod(period[0], period[1]);
+            assertEquals(raw.size(), planned.size());
+            for (int i = 0; i < raw.size(); i++) {
+                assertEquals(raw.get(i)[0], planned.get(i).getSellerId());
+                assertEquals(0, ((BigDecimal) raw.get(i)[1]).compareTo(planned.get(i).getTotalAmount()));
+            }
+        }
+    }
+
+    @Test
+    void testGetTopSellers_LimitsAndRanksByMetric() {
+        LocalDateTime start = day.atTime(12, 0);
+        LocalDateTime end = day.plusDays(3).atTime(12, 0);
+
+        List<SellerRankDto> byAmount = salesRollupService.getTopSellers(start, end, 1, SalesMetric.AMOUNT);
+        List<SellerRankDto> byCount = salesRollupService.getTopSellers(start, end, 2, SalesMetric.COUNT);
+
+        assertEquals(1, byAmount.size());
+        assertEquals(seller1.getId(), byAmount.get(0).getSellerId());
+        assertEquals("Иван Иванов", byAmount.get(0).getName());
+        assertEquals(0, new BigDecimal("370.00").compareTo(byAmount.get(0).getTotalAmount()));
+        assertEquals(3L, byAmount.get(0).getTransactionCount());
+        assertNotNull(byAmount.get(0).getRegistrationDate());
+
+        assertEquals(List.of(1, 2), byCount.stream().map(SellerRankDto::getRank).toList());
+        assertEquals(seller1.getId(), byCount.get(0).getSellerId());
+        assertEquals(2L, byCount.get(1).getTransactionCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> rollupRows() {
+        List<Object[]> rows = entityManager.getEntityManager().createNativeQuery(
+                "SELECT seller_id, CAST(sales_day AS VARCHAR), payment_type, amount_sum, tx_count " +
+                        "FROM seller_daily_sales ORDER BY seller_id, sales_day, payment_type").getResultList();
+        return rows.stream().map(Arrays::toString).toList();
+    }
+
+    private void persistTransaction(Seller seller, String amount, Transaction.PaymentType paymentType,
+                                    LocalDateTime date) {
+        entityManager.persist(new Transaction(seller, new BigDecimal(amount), paymentType, date));
+    }
+}
@@ -6,7 +6,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.transaction.annotation.Transactional;
+import ru.shift.zverev.crm_system.dto.SellerDto;
+import ru.shift.zverev.crm_system.dto.SellerSalesTotalDto;
 import ru.shift.zverev.crm_system.model.Seller;
 import ru.shift.zverev.crm_system.model.Transaction;
 
@@ -134,11 +137,37 @@ class SellerRepositoryTest {
         BigDecimal limit = new BigDecimal("100.00");
 
         
-        List<Seller> sellers = sellerRepository.findWithTotalSalesLessThan(limit);
+        List<SellerSalesTotalDto> rows = sellerRepository.findWithTotalSalesLessThan(
+                limit, testDate.minusYears(1), testDate, 0L, Limit.of(10));
 
         
-        assertEquals(1, sellers.size());
-        assertEquals("Мария Петрова", sellers.get(0).getName());
+        assertEquals(1, rows.size());
+        assertEquals("Мария Петрова", rows.get(0).getName());
+        assertEquals(0, new BigDecimal("75.00").compareTo(rows.get(0).getTotalAmount()));
+    }
+
+    @Test
+    void testFindWithTotalSalesLessThan_HonorsPeriodAndKeepsSellersWithoutSales() {
+        Seller newcomer = entityManager.persistAndFlush(new Seller("Петр Сидоров", testDate));
+
+        
+        List<SellerSalesTotalDto> rows = sellerRepository.findWithTotalSalesLessThan(
+                new BigDecimal("300.00"), testDate.minusDays(7), testDate, 0L, Limit.of(10));
+
+        
+        assertEquals(List.of(testSeller1.getId(), testSeller2.getId(), newcomer.getId()),
+                rows.stream().map(SellerSalesTotalDto::getId).toList());
+        assertEquals(0, BigDecimal.ZERO.compareTo(rows.get(2).getTotalAmount()));
+    }
+
+    @Test
+    void testFindWithTotalSalesLessThan_KeysetPage() {
+        List<SellerSalesTotalDto> rows = sellerRepository.findWithTotalSalesLessThan(
+                new BigDecimal("1000.00"), testDate.minusYears(1), testDate, testSeller1.getId(), Limit.of(1));
+
+        
+        assertEquals(1, rows.size());
+        assertEquals(testSeller2.getId(), rows.get(0).getId());
     }
 
     @Test
@@ -201,4 +230,22 @@ class SellerRepositoryTest {
 
         assertEquals(2, count);
     }
+
+    @Test
+    void testFindPageAfterId() {
+        List<SellerDto> firstPage = sellerRepository.findPageAfterId(0L, Limit.of(1));
+        List<SellerDto> secondPage = sellerRepository.findPageAfterId(firstPage.get(0).getId(), Limit.of(1));
+
+        assertEquals(1, firstPage.size());
+        assertEquals("Иван Иванов", firstPage.get(0).getName());
+        assertEquals(1, secondPage.size());
+        assertEquals("Мария Петрова", secondPage.get(0).getName());
+    }
+
+    @Test
+    void testFindExistingIds() {
+        List<Long> ids = sellerRepository.findExistingIds(List.of(testSeller1.getId(), -1L));
+
+        assertEquals(List.of(testSeller1.getId()), ids);
+    }
 }
@@ -1,18 +1,24 @@
 package ru.shift.zverev.crm_system.repository;
 
 
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.transaction.annotation.Transactional;
+import ru.shift.zverev.crm_system.dto.TransactionDto;
 import ru.shift.zverev.crm_system.model.Seller;
 import ru.shift.zverev.crm_system.model.Transaction;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -238,4 +244,148 @@ class TransactionRepositoryTest {
         
         assertEquals(3, count);
     }
+
+    @Test
+    void testFindPageAfterId() {
+        List<TransactionDto> firstPage = transactionRepository.findPageAfterId(0L, Limit.of(2));
+        List<TransactionDto> secondPage = transactionRepository.findPageAfterId(
+                firstPage.get(1).getId(), Limit.of(2));
+
+
+        assertEquals(2, firstPage.size());
+        assertEquals(testTransaction1.getId(), firstPage.get(0).getId());
+        assertEquals(testTransaction2.getId(), firstPage.get(1).getId());
+        assertEquals(1, secondPage.size());
+        assertEquals(testTransaction3.getId(), secondPage.get(0).getId());
+    }
+
+    @Test
+    void testFindPageBySellerIdAfter() {
+        LocalDateTime start = testDate.minusDays(30);
+        entityManager.clear();
+
+        
+        List<TransactionDto> firstPage = transactionRepository.findPageBySellerIdAfter(
+                testSeller1.getId(), start, 0L, testDate, Limit.of(1));
+        TransactionDto last = firstPage.get(0);
+        List<TransactionDto> secondPage = transactionRepository.findPageBySellerIdAfter(
+                testSeller1.getId(), last.getTransactionDate(), last.getId(), testDate, Limit.of(1));
+        List<TransactionDto> thirdPage = transactionRepository.findPageBySellerIdAfter(
+                testSeller1.getId(), secondPage.get(0).getTransactionDate(), secondPage.get(0).getId(),
+                testDate, Limit.of(1));
+
+        
+        assertEquals(testTransaction1.getId(), last.getId());
+        assertEquals(testTransaction2.getId(), secondPage.get(0).getId());
+        assertTrue(thirdPage.isEmpty());
+    }
+
+    @Test
+    void testFindPageBySellerIdWithoutEnd_ReachesFutureDates() {
+        // API такую дату не примет (@PastOrPresent), но она может прийти загрузкой в обход сервиса
+        LocalDateTime future = testDate.plusDays(30);
+        entityManager.getEntityManager()
+                .createQuery("UPDATE Transaction t SET t.transactionDate = :date WHERE t.id = :id")
+                .setParameter("date", future)
+                .setParameter("id", testTransaction2.getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        List<TransactionDto> firstPage = transactionRepository.findFirstPageBySellerId(testSeller1.getId(), Limit.of(1));
+        List<TransactionDto> secondPage = transactionRepository.findPageBySellerIdFrom(testSeller1.getId(),
+                firstPage.get(0).getTransactionDate(), firstPage.get(0).getId(), Limit.of(2));
+
+        assertEquals(testTransaction1.getId(), firstPage.get(0).getId());
+        assertEquals(1, secondPage.size());
+        assertEquals(testTransaction2.getId(), secondPage.get(0).getId());
+        assertTrue(secondPage.get(0).getTransactionDate().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void testStreamAllOrderById() {
+        List<Long> ids;
+        try (Stream<TransactionDto> transactions = transactionRepository.streamAllOrderById()) {
+            ids = transactions.map(TransactionDto::getId).toList();
+        }
+
+        assertEquals(List.of(testTransaction1.getId(), testTransaction2.getId(), testTransaction3.getId()), ids);
+    }
+
+    @Test
+    void testFindDtoById() {
+        entityManager.clear();
+
+        TransactionDto dto = transactionRepository.findDtoById(testTransaction1.getId()).orElseThrow();
+
+        assertEquals(testSeller1.getId(), dto.getSellerId());
+        assertEquals(testSeller1.getName(), dto.getSellerName());
+        assertEquals(0, testTransaction1.getAmount().compareTo(dto.getAmount()));
+        assertEquals(testTransaction1.getPaymentType().name(), dto.getPaymentType());
+        // проекция не создаёт управляемых сущностей
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void testAggregateAllBySeller() {
+        List<Object[]> rows = transactionRepository.aggregateAllBySeller();
+
+        
+        assertEquals(2, rows.size());
+        Object[] first = rows.stream().filter(row -> row[0].equals(testSeller1.getId())).findFirst().orElseThrow();
+        assertEquals(2L, first[1]);
+        assertEquals(new BigDecimal("400.00"), first[2]);
+        assertEquals(new BigDecimal("150.00"), first[3]);
+        assertEquals(new BigDecimal("250.00"), first[4]);
+        assertInstanceOf(LocalDateTime.class, first[5]);
+    }
+
+    @Test
+    void testAggregateBySellerId() {
+        List<Object[]> rows = transactionRepository.aggregateBySellerId(testSeller2.getId());
+
+        
+        assertEquals(1, rows.size());
+        assertEquals(1L, rows.get(0)[0]);
+        assertEquals(new BigDecimal("75.00"), rows.get(0)[1]);
+    }
+
+    @Test
+    void testAggregateStatisticsByPeriod() {
+        List<Object[]> rows = transactionRepository.aggregateStatisticsByPeriod(
+                testDate.minusDays(7), testDate);
+
+        
+        assertEquals(1, rows.size());
+        Object[] row = rows.get(0);
+        assertEquals(2L, row[0]);
+        assertEquals(0, new BigDecimal("325.00").compareTo((BigDecimal) row[1]));
+        assertEquals(2L, row[2]);
+        assertEquals(0, new BigDecimal("75.00").compareTo((BigDecimal) row[3]));
+        assertEquals(0, new BigDecimal("250.00").compareTo((BigDecimal) row[4]));
+    }
+
+    @Test
+    void testAggregateByPaymentTypeForPeriod() {
+        Map<Transaction.PaymentType, Object[]> rows = new EnumMap<>(Transaction.PaymentType.class);
+        for (Object[] row : transactionRepository.aggregateByPaymentTypeForPeriod(testDate.minusDays(7), testDate)) {
+            rows.put((Transaction.PaymentType) row[0], row);
+        }
+
+        assertEquals(2, rows.size());
+        assertEquals(1L, ((Number) rows.get(Transaction.PaymentType.CARD)[1]).longValue());
+        assertEquals(0, new BigDecimal("75.00").compareTo((BigDecimal) rows.get(Transaction.PaymentType.CARD)[2]));
+        assertEquals(1L, ((Number) rows.get(Transaction.PaymentType.CASH)[1]).longValue());
+        assertEquals(0, new BigDecimal("250.00").compareTo((BigDecimal) rows.get(Transaction.PaymentType.CASH)[2]));
+    }
+
+    @Test
+    void testAggregateStatisticsByPeriod_EmptyPeriod() {
+        List<Object[]> rows = transactionRepository.aggregateStatisticsByPeriod(
+                testDate.minusYears(2), testDate.minusYears(1));
+
+        
+        assertEquals(1, rows.size());
+        assertEquals(0L, rows.get(0)[0]);
+        assertNull(rows.get(0)[3]);
+    }
 }
@@ -0,0 +1,281 @@
+package ru.shift.zverev.crm_system.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.shift.zverev.crm_system.dto.AnalyticsJobDto;
+import ru.shift.zverev.crm_system.dto.AnalyticsJobRequest;
+import ru.shift.zverev.crm_system.dto.CursorPage;
+import ru.shift.zverev.crm_system.dto.SalesStatisticsDto;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsJobServiceTest {
+
+    @Mock
+    private TransactionServiceInterface transactionService;
+
+    @Mock
+    private SellerServiceInterface sellerService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
+    private MutableClock clock;
+    private AnalyticsJobService analyticsJobService;
+    private CountDownLatch release;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-03-01T12:00:00Z"));
+        lenient().when(entityManager.unwrap(Session.class)).thenReturn(session);
+        analyticsJobService = new AnalyticsJobService(transactionService, sellerService,
+                TransactionOperations.withoutTransaction(), entityManager, new SimpleMeterRegistry(),
+                1, 2, Duration.ofMinutes(10), 100, clock);
+        release = new CountDownLatch(1);
+        startDate = LocalDateTime.of(2024, 1, 1, 0, 0);
+        endDate = LocalDateTime.of(2024, 3, 1, 0, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        analyticsJobService.shutdown();
+    }
+
+    @Test
+    void testSubmit_StatisticsJobSucceeds() throws Exception {
+        SalesStatisticsDto statistics = new SalesStatisticsDto(startDate, endDate, new BigDecimal("500.00"), 3, 2,
+                new BigDecimal("166.67"), new BigDecimal("50.00"), new BigDecimal("300.00"), Map.of());
+        when(transactionService.getSalesStatisticsByPeriod(startDate, endDate)).thenReturn(statistics);
+
+        AnalyticsJobDto submitted = analyticsJobService.submit(statisticsRequest());
+        assertEquals("statistics", submitted.getType());
+
+        AnalyticsJobDto finished = awaitFinished(submitted.getId());
+        assertEquals("SUCCEEDED", finished.getStatus());
+        assertSame(statistics, finished.getResult());
+        assertNotNull(finished.getFinishedAt());
+    }
+
+    @Test
+    void testSubmit_LowPerformanceJobUsesPageParameters() throws Exception {
+        when(sellerService.getSellersAmountLessThan(new BigDecimal("100.00"), null, null, null, 200))
+                .thenReturn(new CursorPage<>(List.of(), null));
+        AnalyticsJobRequest request = new AnalyticsJobRequest();
+        request.setType("low-performance");
+        request.setLimit(new BigDecimal("100.00"));
+        request.setSize(200);
+
+        AnalyticsJobDto finished = awaitFinished(analyticsJobService.submit(request).getId());
+
+        assertEquals("SUCCEEDED", finished.getStatus());
+        assertInstanceOf(CursorPage.class, finished.getResult());
+    }
+
+    @Test
+    void testSubmit_InvalidRequestRejectedUpfront() {
+        AnalyticsJobRequest unknownType = new AnalyticsJobRequest();
+        unknownType.setType("forecast");
+        AnalyticsJobRequest noDates = new AnalyticsJobRequest();
+        noDates.setType("statistics");
+        AnalyticsJobRequest noLimit = new AnalyticsJobRequest();
+        noLimit.setType("low-performance");
+        AnalyticsJobRequest reversed = statisticsRequest();
+        reversed.setStartDate(endDate.plusDays(1));
+
+        assertThrows(IllegalArgumentException.class, () -> analyticsJobService.submit(unknownType));
+        assertThrows(IllegalArgumentException.class, () -> analyticsJobService.submit(noDates));
+        assertThrows(IllegalArgumentException.class, () -> analyticsJobService.submit(noLimit));
+        assertThrows(IllegalArgumentException.class, () -> analyticsJobService.submit(reversed));
+        verifyNoInteractions(transactionService, sellerService);
+    }
+
+    @Test
+    void testSubmit_FailedReportKeepsError() throws Exception {
+        when(transactionService.getSalesStatisticsByPeriod(startDate, endDate))
+                .thenThrow(new IllegalStateException("connection is closed"));
+
+        AnalyticsJobDto finished = awaitFinished(analyticsJobService.submit(statisticsRequest()).getId());
+
+        assertEquals("FAILED", finished.getStatus());
+        assertEquals("connection is closed", finished.getError());
+        assertNull(finished.getResult());
+    }
+
+    @Test
+    void testSubmit_QueueFullIsRejected() throws Exception {
+        CountDownLatch started = blockStatistics();
+        analyticsJobService.submit(statisticsRequest());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        analyticsJobService.submit(statisticsRequest());
+        analyticsJobService.submit(statisticsRequest());
+
+        assertThrows(RejectedExecutionException.class, () -> analyticsJobService.submit(statisticsRequest()));
+    }
+
+    @Test
+    void testCancel_QueuedJobNeverRuns() throws Exception {
+        CountDownLatch started = blockStatistics();
+        analyticsJobService.submit(statisticsRequest());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        String queued = analyticsJobService.submit(statisticsRequest()).getId();
+
+        assertEquals("CANCELLED", analyticsJobService.cancel(queued).orElseThrow().getStatus());
+        release.countDown();
+        // один поток: следующая задача выполняется только после отменённой
+        awaitFinished(analyticsJobService.submit(statisticsRequest()).getId());
+
+        verify(transactionService, times(2)).getSalesStatisticsByPeriod(startDate, endDate);
+        assertEquals("CANCELLED", analyticsJobService.getById(queued).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testCancel_RunningJobDiscardsResult() throws Exception {
+        CountDownLatch started = blockStatistics();
+        String id = analyticsJobService.submit(statisticsRequest()).getId();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AnalyticsJobDto cancelled = analyticsJobService.cancel(id).orElseThrow();
+        release.countDown();
+        awaitFinished(analyticsJobService.submit(statisticsRequest()).getId());
+
+        assertEquals("CANCELLED", cancelled.getStatus());
+        assertNotNull(cancelled.getStartedAt());
+        AnalyticsJobDto after = analyticsJobService.getById(id).orElseThrow();
+        assertEquals("CANCELLED", after.getStatus());
+        assertNull(after.getResult());
+        assertFalse(analyticsJobService.cancel(id).isEmpty());
+    }
+
+    @Test
+    void testCancel_RunningQueryIsCancelledAndWorkerFreed() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch queryCancelled = new CountDownLatch(1);
+        // запрос висит, пока драйвер не отменит его по Statement.cancel()
+        when(transactionService.getSalesStatisticsByPeriod(startDate, endDate)).thenAnswer(invocation -> {
+            started.countDown();
+            queryCancelled.await();
+            throw new IllegalStateException("canceling statement due to user request");
+        });
+        doAnswer(invocation -> {
+            queryCancelled.countDown();
+            return null;
+        }).when(session).cancelQuery();
+        String id = analyticsJobService.submit(statisticsRequest()).getId();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        analyticsJobService.cancel(id);
+
+        // один поток: следующая задача выполняется, только если отменённая его освободила
+        AnalyticsJobRequest next = statisticsRequest();
+        next.setEndDate(endDate.plusDays(1));
+        assertEquals("SUCCEEDED", awaitFinished(analyticsJobService.submit(next).getId()).getStatus());
+        verify(session).cancelQuery();
+        assertEquals("CANCELLED", analyticsJobService.getById(id).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testGetById_FinishedJobExpiresAfterTtl() throws Exception {
+        when(transactionService.getSalesStatisticsByPeriod(startDate, endDate)).thenReturn(null);
+        String id = awaitFinished(analyticsJobService.submit(statisticsRequest()).getId()).getId();
+
+        clock.advance(Duration.ofMinutes(9));
+        assertTrue(analyticsJobService.getById(id).isPresent());
+        clock.advance(Duration.ofMinutes(1));
+        assertTrue(analyticsJobService.getById(id).isEmpty());
+        assertTrue(analyticsJobService.cancel(id).isEmpty());
+    }
+
+    @Test
+    void testGetById_Unknown() {
+        assertTrue(analyticsJobService.getById("missing").isEmpty());
+    }
+
+    private AnalyticsJobRequest statisticsRequest() {
+        AnalyticsJobRequest request = new AnalyticsJobRequest();
+        request.setType("statistics");
+        request.setStartDate(startDate);
+        request.setEndDate(endDate);
+        return request;
+    }
+
+    // отчёт висит до release, как долгий запрос к БД
+    private CountDownLatch blockStatistics() {
+        CountDownLatch started = new CountDownLatch(1);
+        when(transactionService.getSalesStatisticsByPeriod(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        return started;
+    }
+
+    private AnalyticsJobDto awaitFinished(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            AnalyticsJobDto job = analyticsJobService.getById(id).orElseThrow();
+            if (AnalyticsJob.Status.valueOf(job.getStatus()).isFinished()) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        fail("job " + id + " did not finish");
+        return null;
+    }
+
+    private static class MutableClock extends Clock {
+        private volatile Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.shift.zverev.crm_system.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalesPeriodPlanTest {
+
+    private final LocalDate day = LocalDate.of(2024, 3, 10);
+
+    @Test
+    void testOf_PartialFirstDayGoesToHead() {
+        SalesPeriodPlan plan = SalesPeriodPlan.of(day.atTime(12, 0), day.plusDays(5).atTime(8, 0));
+
+        assertTrue(plan.hasHead());
+        assertEquals(day.plusDays(1).atStartOfDay(), plan.headEnd());
+        assertEquals(day.plusDays(1), plan.firstDay());
+        assertEquals(day.plusDays(4), plan.lastDay());
+        assertEquals(day.plusDays(5).atStartOfDay(), plan.tailStart());
+    }
+
+    @Test
+    void testOf_MidnightStartHasNoHead() {
+        SalesPeriodPlan plan = SalesPeriodPlan.of(day.atStartOfDay(), day.plusDays(2).atStartOfDay());
+
+        assertFalse(plan.hasHead());
+        assertEquals(day, plan.firstDay());
+        assertEquals(day.plusDays(1), plan.lastDay());
+        assertEquals(day.plusDays(2).atStartOfDay(), plan.tailStart());
+    }
+
+    @Test
+    void testOf_ShortPeriodIsReadFromTransactions() {
+        LocalDateTime start = day.atTime(9, 0);
+        SalesPeriodPlan plan = SalesPeriodPlan.of(start, day.plusDays(1).atTime(9, 0));
+
+        assertFalse(plan.hasRollupDays());
+        assertFalse(plan.hasHead());
+        assertEquals(start, plan.tailStart());
+    }
+}
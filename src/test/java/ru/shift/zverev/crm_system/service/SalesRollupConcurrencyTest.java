@@ -0,0 +1,97 @@
+package ru.shift.zverev.crm_system.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.shift.zverev.crm_system.model.Seller;
+import ru.shift.zverev.crm_system.model.SellerDailySales;
+import ru.shift.zverev.crm_system.model.SellerDailySalesId;
+import ru.shift.zverev.crm_system.model.Transaction;
+import ru.shift.zverev.crm_system.repository.SellerDailySalesRepository;
+import ru.shift.zverev.crm_system.repository.SellerRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Первая продажа в пустой ячейке среза из двух транзакций одновременно: обе должны закоммититься
+// и сложиться. Коммиты настоящие, поэтому у теста своя база.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rollup",
+        "spring.jpa.show-sql=false"
+})
+class SalesRollupConcurrencyTest {
+
+    private static final int WRITERS = 2;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private SellerDailySalesRepository dailySalesRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testConcurrentFirstSalesInEmptyBucket() throws Exception {
+        Long sellerId = sellerRepository.save(new Seller("Иван Иванов", LocalDateTime.now())).getId();
+        LocalDate day = LocalDate.of(2024, 3, 10);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CyclicBarrier start = new CyclicBarrier(WRITERS);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                writers.add(executor.submit(() -> transaction.executeWithoutResult(status -> {
+                    await(start);
+                    salesRollupService.record(sellerId, day.atTime(12, 0), Transaction.PaymentType.CARD,
+                            new BigDecimal("10.00"), 1);
+                    // держим транзакцию открытой, чтобы второй писатель застал ячейку незакоммиченной
+                    sleep();
+                })));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        SellerDailySales bucket = dailySalesRepository
+                .findById(new SellerDailySalesId(sellerId, day, Transaction.PaymentType.CARD))
+                .orElseThrow();
+        assertEquals(0, new BigDecimal("20.00").compareTo(bucket.getAmountSum()));
+        assertEquals(WRITERS, bucket.getTxCount());
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
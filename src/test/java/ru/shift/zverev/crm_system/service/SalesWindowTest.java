@@ -0,0 +1,80 @@
+package ru.shift.zverev.crm_system.service;
+
+import org.antlr.v4.runtime.misc.Pair;
+import org.junit.jupiter.api.Test;
+import ru.shift.zverev.crm_system.dto.SalesMetric;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalesWindowTest {
+
+    private final LocalDate day = LocalDate.of(2024, 3, 1);
+
+    @Test
+    void testBest_SlidesOverCalendarDaysNotDistinctDates() {
+        // 5 продаж 1-го числа и по 3 продажи 10-го и 11-го: окно в 2 дня - 10-11, а не 1-10
+        SalesWindow window = SalesWindow.fromDailyTotals(List.of(
+                row(day, 5, "50.00"),
+                row(day.plusDays(9), 3, "30.00"),
+                row(day.plusDays(10), 3, "30.00")));
+
+        Pair<LocalDate, LocalDate> result = window.best(2, SalesMetric.COUNT);
+
+        assertEquals(day.plusDays(9), result.a);
+        assertEquals(day.plusDays(10), result.b);
+    }
+
+    @Test
+    void testBest_ByAmount() {
+        SalesWindow window = SalesWindow.fromDailyTotals(List.of(
+                row(day, 10, "10.00"),
+                row(day.plusDays(5), 1, "999.99")));
+
+        assertEquals(day, window.best(1, SalesMetric.COUNT).a);
+        assertEquals(day.plusDays(5), window.best(1, SalesMetric.AMOUNT).a);
+    }
+
+    @Test
+    void testBest_WindowLongerThanHistoryStartsAtFirstSale() {
+        SalesWindow window = SalesWindow.fromDailyTotals(List.of(
+                row(day, 1, "10.00"),
+                row(day.plusDays(3), 1, "10.00")));
+
+        Pair<LocalDate, LocalDate> result = window.best(30, SalesMetric.COUNT);
+
+        assertEquals(day, result.a);
+        assertEquals(day.plusDays(29), result.b);
+    }
+
+    @Test
+    void testBest_TieKeepsEarliestWindow() {
+        SalesWindow window = SalesWindow.fromDailyTotals(List.of(
+                row(day, 2, "20.00"),
+                row(day.plusDays(7), 2, "20.00")));
+
+        assertEquals(day, window.best(3, SalesMetric.COUNT).a);
+    }
+
+    @Test
+    void testFromDailyTotals_SkipsEmptyDays() {
+        SalesWindow window = SalesWindow.fromDailyTotals(List.<Object[]>of(row(day, 0, "0.00")));
+
+        assertTrue(window.isEmpty());
+        assertNull(window.best(1, SalesMetric.COUNT));
+    }
+
+    @Test
+    void testBest_InvalidWindow() {
+        SalesWindow window = SalesWindow.fromDailyTotals(List.<Object[]>of(row(day, 1, "1.00")));
+
+        assertThrows(IllegalArgumentException.class, () -> window.best(0, SalesMetric.COUNT));
+    }
+
+    private Object[] row(LocalDate date, long count, String amount) {
+        return new Object[]{date, count, new BigDecimal(amount)};
+    }
+}
@@ -1,17 +1,31 @@
 package ru.shift.zverev.crm_system.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.antlr.v4.runtime.misc.Pair;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import ru.shift.zverev.crm_system.cache.AnalyticsResultCache;
+import ru.shift.zverev.crm_system.cache.DataVersions;
+import ru.shift.zverev.crm_system.cache.SellerIndex;
+import ru.shift.zverev.crm_system.dto.SalesMetric;
+import ru.shift.zverev.crm_system.dto.CursorPage;
+import ru.shift.zverev.crm_system.dto.SellerDto;
+import ru.shift.zverev.crm_system.dto.SellerRankDto;
+import ru.shift.zverev.crm_system.dto.SellerSalesTotalDto;
 import ru.shift.zverev.crm_system.model.Seller;
 import ru.shift.zverev.crm_system.repository.SellerRepository;
 import ru.shift.zverev.crm_system.repository.TransactionRepository;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -20,6 +34,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +46,19 @@ class SellerServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private SellerIndex sellerIndex;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private DataVersions dataVersions;
+
+    @Spy
+    private AnalyticsResultCache analyticsResultCache =
+            new AnalyticsResultCache(Duration.ofMinutes(1), 100, Duration.ZERO, new SimpleMeterRegistry());
+
     @InjectMocks
     private SellerService sellerService;
 
@@ -63,7 +91,7 @@ class SellerServiceTest {
         
         when(sellerRepository.findById(1L)).thenReturn(Optional.of(testSeller));
 
-        Optional<Seller> result = sellerService.getById(1L);
+        Optional<SellerDto> result = sellerService.getById(1L);
 
         assertTrue(result.isPresent());
         assertEquals("Тест Продавец", result.get().getName());
@@ -80,6 +108,8 @@ class SellerServiceTest {
         assertNotNull(result);
         assertEquals("Тест Продавец", result.getName());
         verify(sellerRepository).save(testSeller);
+        verify(sellerIndex).put(1L, "Тест Продавец");
+        verify(dataVersions).sellersChanged();
     }
 
     @Test
@@ -93,6 +123,7 @@ class SellerServiceTest {
         );
         assertEquals("Invalid seller data", exception.getMessage());
         verify(sellerRepository, never()).save(any());
+        verify(dataVersions, never()).sellersChanged();
     }
 
     @Test
@@ -118,6 +149,167 @@ class SellerServiceTest {
 
         verify(sellerRepository).existsById(1L);
         verify(sellerRepository).deleteById(1L);
+        verify(sellerIndex).remove(1L);
+        verify(dataVersions).sellersChanged();
+    }
+
+    @Test
+    void testIsSellerExists_IndexHitSkipsDatabase() {
+        when(sellerIndex.contains(1L)).thenReturn(true);
+
+        assertTrue(sellerService.isSellerExists(1L));
+        verifyNoInteractions(sellerRepository);
+    }
+
+    @Test
+    void testIsSellerExists_IndexMissFallsBackToDatabase() {
+        when(sellerRepository.findById(1L)).thenReturn(Optional.of(testSeller));
+
+        assertTrue(sellerService.isSellerExists(1L));
+        verify(sellerIndex).put(1L, "Тест Продавец");
+    }
+
+    @Test
+    void testGetReferenceById_ReturnsProxyWithoutLoading() {
+        when(sellerIndex.contains(1L)).thenReturn(true);
+        when(sellerRepository.getReferenceById(1L)).thenReturn(testSeller);
+
+        Seller result = sellerService.getReferenceById(1L);
+
+        assertSame(testSeller, result);
+        verify(sellerRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testGetReferenceById_UnknownSeller() {
+        when(sellerRepository.findById(999L)).thenReturn(Optional.empty());
+
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> sellerService.getReferenceById(999L)
+        );
+        assertEquals("Seller not found with id: 999", exception.getMessage());
+        verify(sellerRepository, never()).getReferenceById(anyLong());
+    }
+
+    @Test
+    void testGetSellerName_FromIndex() {
+        when(sellerIndex.findName(1L)).thenReturn(Optional.of("Тест Продавец"));
+
+        assertEquals(Optional.of("Тест Продавец"), sellerService.getSellerName(1L));
+        verifyNoInteractions(sellerRepository);
+    }
+
+    @Test
+    void testGetMostProductiveSellerByPeriod_BuildsSellerFromTopRow() {
+        SellerRankDto leader = new SellerRankDto(1, 2L, "Другой Продавец", "other@example.com", testDate,
+                new BigDecimal("250.00"), 3);
+        when(salesRollupService.getTopSellers(any(LocalDateTime.class), any(LocalDateTime.class), eq(1),
+                eq(SalesMetric.AMOUNT))).thenReturn(List.of(leader));
+
+        Seller result = sellerService.getMostProductiveSellerByPeriod(7);
+
+        assertEquals(2L, result.getId());
+        assertEquals("Другой Продавец", result.getName());
+        verifyNoInteractions(sellerRepository, transactionRepository);
+    }
+
+    @Test
+    void testGetMostProductiveSellerByPeriod_CachedUntilSellerChanges() {
+        SellerRankDto leader = new SellerRankDto(1, 1L, "Тест Продавец", "test@example.com", testDate,
+                new BigDecimal("250.00"), 3);
+        when(salesRollupService.getTopSellers(any(LocalDateTime.class), any(LocalDateTime.class), eq(1),
+                eq(SalesMetric.AMOUNT))).thenReturn(List.of(leader));
+        when(sellerRepository.findById(1L)).thenReturn(Optional.of(testSeller));
+        when(sellerRepository.save(any(Seller.class))).thenReturn(testSeller);
+
+        sellerService.getMostProductiveSellerByPeriod(7);
+        sellerService.getMostProductiveSellerByPeriod(7);
+        verify(salesRollupService, times(1)).getTopSellers(any(), any(), eq(1), eq(SalesMetric.AMOUNT));
+
+        Seller details = new Seller();
+        details.setName("Новое Имя");
+        sellerService.update(1L, details);
+        sellerService.getMostProductiveSellerByPeriod(7);
+        verify(salesRollupService, times(2)).getTopSellers(any(), any(), eq(1), eq(SalesMetric.AMOUNT));
+    }
+
+    @Test
+    void testGetMostProductiveSellerOfAllTime_NoSales() {
+        when(salesRollupService.getTopSellers(any(LocalDateTime.class), any(LocalDateTime.class), eq(1),
+                eq(SalesMetric.AMOUNT))).thenReturn(List.of());
+
+        assertNull(sellerService.getMostProductiveSellerOfAllTime());
+        verify(sellerRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testGetTopSellers_DefaultsPeriodAndPassesLimit() {
+        when(salesRollupService.getTopSellers(any(LocalDateTime.class), any(LocalDateTime.class), eq(10),
+                eq(SalesMetric.COUNT))).thenReturn(List.of());
+
+        sellerService.getTopSellers(10, null, null, SalesMetric.COUNT);
+
+        verify(salesRollupService).getTopSellers(eq(LocalDateTime.of(1900, 1, 1, 0, 0)), any(LocalDateTime.class),
+                eq(10), eq(SalesMetric.COUNT));
+    }
+
+    @Test
+    void testGetTopSellers_InvalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> sellerService.getTopSellers(0, null, null, SalesMetric.AMOUNT));
+        assertThrows(IllegalArgumentException.class,
+                () -> sellerService.getTopSellers(5, testDate, testDate.minusDays(1), SalesMetric.AMOUNT));
+        verifyNoInteractions(salesRollupService);
+    }
+
+    @Test
+    void testGetMostProductiveTimeById_UsesDailyRollup() {
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        when(salesRollupService.getDailyTotalsBySellerId(1L)).thenReturn(List.of(
+                new Object[]{day, 1L, new BigDecimal("10.00")},
+                new Object[]{day.plusDays(1), 5L, new BigDecimal("50.00")},
+                new Object[]{day.plusDays(2), 4L, new BigDecimal("40.00")},
+                new Object[]{day.plusDays(3), 0L, BigDecimal.ZERO}));
+
+        Pair<LocalDate, LocalDate> result = sellerService.getMostProductiveTimeById(1L, 2L, SalesMetric.COUNT);
+
+        assertEquals(day.plusDays(1), result.a);
+        assertEquals(day.plusDays(2), result.b);
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void testGetMostProductiveTimeById_NoSales() {
+        when(salesRollupService.getDailyTotalsBySellerId(1L)).thenReturn(List.of());
+
+        assertNull(sellerService.getMostProductiveTimeById(1L, 7L, SalesMetric.COUNT));
+    }
+
+    @Test
+    void testGetMostProductiveTimeById_InvalidDays() {
+        for (long days : new long[]{0L, -1L, SellerService.MAX_WINDOW_DAYS + 1, Long.MAX_VALUE}) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> sellerService.getMostProductiveTimeById(1L, days, SalesMetric.COUNT));
+        }
+        verifyNoInteractions(salesRollupService);
+    }
+
+    @Test
+    void testGetSellersAmountLessThan_PagesTotalsAndCursor() {
+        when(sellerRepository.findWithTotalSalesLessThan(eq(new BigDecimal("100.00")),
+                eq(LocalDateTime.of(1900, 1, 1, 0, 0)), any(LocalDateTime.class), eq(0L), eq(Limit.of(2))))
+                .thenReturn(List.of(
+                        new SellerSalesTotalDto(1L, "Тест Продавец", null, testDate, BigDecimal.ZERO),
+                        new SellerSalesTotalDto(2L, "Другой Продавец", null, testDate, BigDecimal.TEN)));
+
+        CursorPage<SellerSalesTotalDto> page = sellerService.getSellersAmountLessThan(
+                new BigDecimal("100.00"), null, null, null, 1);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals(1L, page.getItems().get(0).getId());
+        assertEquals(BigDecimal.ZERO, page.getItems().get(0).getTotalAmount());
+        assertEquals(PageCursor.encode(1L), page.getNextCursor());
     }
 
     @Test
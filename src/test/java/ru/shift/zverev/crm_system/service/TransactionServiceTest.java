@@ -1,27 +1,48 @@
 package ru.shift.zverev.crm_system.service;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import ru.shift.zverev.crm_system.cache.AnalyticsResultCache;
+import ru.shift.zverev.crm_system.cache.DataVersions;
+import ru.shift.zverev.crm_system.cache.SellerSalesAggregate;
+import ru.shift.zverev.crm_system.cache.SellerSalesTotals;
+import ru.shift.zverev.crm_system.dto.CursorPage;
+import ru.shift.zverev.crm_system.dto.SalesStatisticsDto;
+import ru.shift.zverev.crm_system.dto.SellerSalesSummaryDto;
+import ru.shift.zverev.crm_system.dto.TransactionBatchItemResult;
+import ru.shift.zverev.crm_system.dto.TransactionBatchResponse;
+import ru.shift.zverev.crm_system.dto.TransactionDto;
+import ru.shift.zverev.crm_system.dto.TransactionRequest;
 import ru.shift.zverev.crm_system.model.Seller;
 import ru.shift.zverev.crm_system.model.Transaction;
 import ru.shift.zverev.crm_system.repository.SellerRepository;
 import ru.shift.zverev.crm_system.repository.TransactionRepository;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.ArrayList;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +54,25 @@ class TransactionServiceTest {
     @Mock
     private SellerRepository sellerRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private SellerSalesTotals sellerSalesTotals;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private DataVersions dataVersions;
+
+    @Spy
+    private AnalyticsResultCache analyticsResultCache =
+            new AnalyticsResultCache(Duration.ofMinutes(1), 100, Duration.ZERO, new SimpleMeterRegistry());
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -66,15 +106,86 @@ class TransactionServiceTest {
         verify(transactionRepository).findAll();
     }
 
+    @Test
+    void testGetPage_HasNextPage() {
+        TransactionDto second = new TransactionDto(2L, 1L, "Тест Продавец", new BigDecimal("50.00"),
+                Transaction.PaymentType.CASH, testDate);
+        when(transactionRepository.findPageAfterId(0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(TransactionService.toDto(testTransaction), second));
+
+        CursorPage<TransactionDto> page = transactionService.getPage(null, 1);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals(1L, page.getItems().get(0).getId());
+        assertEquals(1L, PageCursor.decodeId(page.getNextCursor()));
+    }
+
+    @Test
+    void testGetPage_LastPage() {
+        when(transactionRepository.findPageAfterId(1L, Limit.of(11))).thenReturn(List.of());
+
+        CursorPage<TransactionDto> page = transactionService.getPage(PageCursor.encode(1L), 10);
+
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetPage_InvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> transactionService.getPage(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.getPage(null, PageCursor.MAX_PAGE_SIZE + 1));
+        verify(transactionRepository, never()).findPageAfterId(anyLong(), any());
+    }
+
+    @Test
+    void testGetTransactionsPageBySellerId_UsesDateIdCursor() {
+        LocalDateTime end = testDate.plusDays(1);
+        String cursor = PageCursor.encode(testDate, 5L);
+        when(transactionRepository.findPageBySellerIdAfter(1L, testDate, 5L, end, Limit.of(3)))
+                .thenReturn(List.of(TransactionService.toDto(testTransaction)));
+
+        CursorPage<TransactionDto> page = transactionService.getTransactionsPageBySellerId(1L, null, end, cursor, 2);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetTransactionsPageBySellerId_WithoutRangeHasNoDateBounds() {
+        String cursor = PageCursor.encode(testDate, 5L);
+        when(transactionRepository.findFirstPageBySellerId(1L, Limit.of(3)))
+                .thenReturn(List.of(TransactionService.toDto(testTransaction)));
+        when(transactionRepository.findPageBySellerIdFrom(1L, testDate, 5L, Limit.of(3))).thenReturn(List.of());
+
+        assertEquals(1, transactionService.getTransactionsPageBySellerId(1L, null, null, null, 2).getItems().size());
+        assertTrue(transactionService.getTransactionsPageBySellerId(1L, null, null, cursor, 2).getItems().isEmpty());
+        verify(transactionRepository, never()).findPageBySellerIdAfter(anyLong(), any(), anyLong(), any(), any());
+    }
+
+    @Test
+    void testExportAll_PassesEveryRow() {
+        TransactionDto second = new TransactionDto(2L, 1L, "Тест Продавец", new BigDecimal("50.00"),
+                Transaction.PaymentType.CASH, testDate);
+        when(transactionRepository.streamAllOrderById())
+                .thenReturn(Stream.of(TransactionService.toDto(testTransaction), second));
+        List<Long> exported = new ArrayList<>();
+
+        transactionService.exportAll(transaction -> exported.add(transaction.getId()));
+
+        assertEquals(List.of(1L, 2L), exported);
+        verifyNoInteractions(entityManager);
+    }
+
     @Test
     void testGetById_Found() {
-        when(transactionRepository.findById(1L)).thenReturn(Optional.of(testTransaction));
+        when(transactionRepository.findDtoById(1L)).thenReturn(Optional.of(TransactionService.toDto(testTransaction)));
 
-        Optional<Transaction> result = transactionService.getById(1L);
+        Optional<TransactionDto> result = transactionService.getById(1L);
 
         assertTrue(result.isPresent());
         assertEquals(new BigDecimal("100.00"), result.get().getAmount());
-        verify(transactionRepository).findById(1L);
+        assertEquals("CARD", result.get().getPaymentType());
+        verify(transactionRepository).findDtoById(1L);
     }
 
     @Test
@@ -86,6 +197,12 @@ class TransactionServiceTest {
         assertNotNull(result);
         assertEquals(new BigDecimal("100.00"), result.getAmount());
         verify(transactionRepository).save(testTransaction);
+        InOrder totals = inOrder(sellerSalesTotals);
+        totals.verify(sellerSalesTotals).beginChange(1L);
+        totals.verify(sellerSalesTotals).add(1L, new BigDecimal("100.00"), testDate);
+        totals.verify(sellerSalesTotals).endChange(1L);
+        verify(salesRollupService).record(1L, testDate, Transaction.PaymentType.CARD, new BigDecimal("100.00"), 1);
+        verify(dataVersions).transactionsChanged();
     }
 
     @Test
@@ -112,6 +229,58 @@ class TransactionServiceTest {
         verify(transactionRepository, never()).save(any());
     }
 
+    @Test
+    void testCreateBatch_ResolvesSellersOnceAndReportsPerItem() {
+        TransactionRequest valid = batchRequest(1L, "100.00", "card");
+        TransactionRequest unknownSeller = batchRequest(2L, "50.00", "CASH");
+        TransactionRequest badPaymentType = batchRequest(1L, "10.00", "CRYPTO");
+        when(sellerRepository.findExistingIds(any())).thenReturn(List.of(1L));
+        when(sellerRepository.getReferenceById(1L)).thenReturn(testSeller);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction saved = invocation.getArgument(0);
+            saved.setId(10L);
+            return saved;
+        });
+
+        TransactionBatchResponse response = transactionService.createBatch(
+                List.of(valid, unknownSeller, badPaymentType));
+
+        assertEquals(1, response.getCreated());
+        assertEquals(2, response.getRejected());
+        assertEquals(TransactionBatchItemResult.Status.CREATED, response.getResults().get(0).getStatus());
+        assertEquals(10L, response.getResults().get(0).getId());
+        assertEquals("Seller not found with id: 2", response.getResults().get(1).getError());
+        assertEquals("Invalid payment type: CRYPTO", response.getResults().get(2).getError());
+        verify(sellerRepository, times(1)).findExistingIds(any());
+        verify(sellerRepository, never()).findById(anyLong());
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+    }
+
+    @Test
+    void testCreateBatch_FlushesEveryJdbcBatch() {
+        List<TransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            requests.add(batchRequest(1L, "1.00", "CASH"));
+        }
+        when(sellerRepository.findExistingIds(any())).thenReturn(List.of(1L));
+        when(sellerRepository.getReferenceById(1L)).thenReturn(testSeller);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransactionBatchResponse response = transactionService.createBatch(requests);
+
+        assertEquals(120, response.getCreated());
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+        verify(salesRollupService, times(1)).record(eq(1L), any(LocalDateTime.class),
+                eq(Transaction.PaymentType.CASH), eq(new BigDecimal("120.00")), eq(120L));
+    }
+
+    @Test
+    void testCreateBatch_InvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> transactionService.createBatch(List.of()));
+        verify(transactionRepository, never()).save(any());
+    }
+
     @Test
     void testUpdate_ExistingTransaction() {
         when(transactionRepository.findById(1L)).thenReturn(Optional.of(testTransaction));
@@ -127,29 +296,37 @@ class TransactionServiceTest {
         assertNotNull(result);
         verify(transactionRepository).findById(1L);
         verify(transactionRepository).save(any(Transaction.class));
+        verify(sellerSalesTotals).replace(1L, new BigDecimal("100.00"), 1L, new BigDecimal("200.00"), testDate);
+        verify(salesRollupService).record(1L, testDate, Transaction.PaymentType.CARD, new BigDecimal("-100.00"), -1);
+        verify(salesRollupService).record(1L, testDate, Transaction.PaymentType.CASH, new BigDecimal("200.00"), 1);
     }
 
     @Test
     void testDelete_ExistingTransaction() {
-        when(transactionRepository.existsById(1L)).thenReturn(true);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(testTransaction));
 
         transactionService.delete(1L);
 
-        verify(transactionRepository).existsById(1L);
-        verify(transactionRepository).deleteById(1L);
+        verify(transactionRepository).findById(1L);
+        verify(transactionRepository).delete(testTransaction);
+        verify(sellerSalesTotals).subtract(1L, new BigDecimal("100.00"), testDate);
+        verify(sellerSalesTotals).endChange(1L);
+        verify(dataVersions).transactionsChanged();
+        verify(salesRollupService).record(1L, testDate, Transaction.PaymentType.CARD, new BigDecimal("-100.00"), -1);
     }
 
     @Test
     void testDelete_NonExistingTransaction() {
-        when(transactionRepository.existsById(999L)).thenReturn(false);
+        when(transactionRepository.findById(999L)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(
             EntityNotFoundException.class, 
             () -> transactionService.delete(999L)
         );
         assertEquals("Transaction not found with id: 999", exception.getMessage());
-        verify(transactionRepository).existsById(999L);
-        verify(transactionRepository, never()).deleteById(anyLong());
+        verify(transactionRepository).findById(999L);
+        verify(transactionRepository, never()).delete(any());
+        verifyNoInteractions(sellerSalesTotals);
     }
 
     @Test
@@ -175,23 +352,88 @@ class TransactionServiceTest {
         verify(transactionRepository).getTotalAmountBySellerId(1L);
     }
 
+    @Test
+    void testGetTotalAmountBySellerId_FromRunningTotals() {
+        when(sellerSalesTotals.find(1L)).thenReturn(Optional.of(
+                new SellerSalesAggregate(new BigDecimal("700.00"), 3, BigDecimal.ONE, BigDecimal.TEN, testDate)));
+
+        BigDecimal result = transactionService.getTotalAmountBySellerId(1L);
+
+        assertEquals(new BigDecimal("700.00"), result);
+        verify(transactionRepository, never()).getTotalAmountBySellerId(anyLong());
+    }
+
+    @Test
+    void testGetSalesSummaryBySellerId() {
+        when(sellerSalesTotals.find(1L)).thenReturn(Optional.of(
+                new SellerSalesAggregate(new BigDecimal("700.00"), 3, BigDecimal.ONE, BigDecimal.TEN, testDate)));
+
+        SellerSalesSummaryDto summary = transactionService.getSalesSummaryBySellerId(1L);
+
+        assertEquals(1L, summary.getSellerId());
+        assertEquals(3, summary.getTransactionCount());
+        assertEquals(BigDecimal.ONE, summary.getMinAmount());
+        assertEquals(BigDecimal.TEN, summary.getMaxAmount());
+        assertEquals(testDate, summary.getLastTransactionDate());
+    }
+
     @Test
     void testGetSalesStatisticsByPeriod() {
-        Object[] result1 = {1L, new BigDecimal("300.00")};
-        Object[] result2 = {2L, new BigDecimal("200.00")};
-        List<Object[]> results = Arrays.asList(result1, result2);
-        
         LocalDateTime start = LocalDateTime.now().minusDays(7);
         LocalDateTime end = LocalDateTime.now();
-        
-        when(transactionRepository.findTopSellersByPeriod(start, end)).thenReturn(results);
+        Object[] row = {3L, new BigDecimal("500.00"), 2L, new BigDecimal("50.00"), new BigDecimal("300.00")};
+        when(transactionRepository.aggregateStatisticsByPeriod(start, end)).thenReturn(List.<Object[]>of(row));
+        when(transactionRepository.aggregateByPaymentTypeForPeriod(start, end)).thenReturn(List.of(
+                new Object[]{Transaction.PaymentType.CASH, 1L, new BigDecimal("50.00")},
+                new Object[]{Transaction.PaymentType.CARD, 2L, new BigDecimal("450.00")}));
+
+        SalesStatisticsDto statistics = transactionService.getSalesStatisticsByPeriod(start, end);
+
+        assertEquals(new BigDecimal("500.00"), statistics.getTotalSales());
+        assertEquals(3L, statistics.getTransactionCount());
+        assertEquals(2L, statistics.getSellerCount());
+        assertEquals(new BigDecimal("166.67"), statistics.getAverageAmount());
+        assertEquals(new BigDecimal("50.00"), statistics.getMinAmount());
+        assertEquals(new BigDecimal("300.00"), statistics.getMaxAmount());
+        assertEquals(2L, statistics.getByPaymentType().get(Transaction.PaymentType.CARD).getTransactionCount());
+        assertEquals(new BigDecimal("50.00"),
+                statistics.getByPaymentType().get(Transaction.PaymentType.CASH).getTotalAmount());
+        verify(transactionRepository, times(1)).aggregateStatisticsByPeriod(start, end);
+        verify(transactionRepository, never()).findTopSellersByPeriod(any(), any());
+    }
+
+    @Test
+    void testGetSalesStatisticsByPeriod_CachedUntilTransactionInWindow() {
+        LocalDateTime start = testDate.minusDays(7);
+        LocalDateTime end = testDate.plusMinutes(1);
+        Object[] row = {0L, null, 0L, null, null};
+        when(transactionRepository.aggregateStatisticsByPeriod(start, end)).thenReturn(List.<Object[]>of(row));
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
 
-        Map<String, BigDecimal> statistics = transactionService.getSalesStatisticsByPeriod(start, end);
+        transactionService.getSalesStatisticsByPeriod(start, end);
+        transactionService.getSalesStatisticsByPeriod(start, end);
+        verify(transactionRepository, times(1)).aggregateStatisticsByPeriod(start, end);
 
-        assertNotNull(statistics);
-        assertEquals(new BigDecimal("500.00"), statistics.get("totalSales"));
-        assertEquals(BigDecimal.valueOf(2), statistics.get("transactionCount"));
-        verify(transactionRepository).findTopSellersByPeriod(start, end);
+        transactionService.create(testTransaction);
+        transactionService.getSalesStatisticsByPeriod(start, end);
+        verify(transactionRepository, times(2)).aggregateStatisticsByPeriod(start, end);
+        verify(analyticsResultCache).transactionChanged(testDate);
+    }
+
+    @Test
+    void testGetSalesStatisticsByPeriod_Empty() {
+        LocalDateTime start = LocalDateTime.now().minusDays(7);
+        LocalDateTime end = LocalDateTime.now();
+        Object[] row = {0L, BigDecimal.ZERO, 0L, null, null};
+        when(transactionRepository.aggregateStatisticsByPeriod(start, end)).thenReturn(List.<Object[]>of(row));
+
+        SalesStatisticsDto statistics = transactionService.getSalesStatisticsByPeriod(start, end);
+
+        assertEquals(0L, statistics.getTransactionCount());
+        assertNull(statistics.getAverageAmount());
+        assertEquals(Transaction.PaymentType.values().length, statistics.getByPaymentType().size());
+        assertEquals(0L, statistics.getByPaymentType().get(Transaction.PaymentType.CARD).getTransactionCount());
+        assertEquals(BigDecimal.ZERO, statistics.getByPaymentType().get(Transaction.PaymentType.CASH).getTotalAmount());
     }
 
     @Test
@@ -249,4 +491,12 @@ class TransactionServiceTest {
         assertEquals("CARD", result.getPaymentType());
         assertEquals(testDate, result.getTransactionDate());
     }
+
+    private TransactionRequest batchRequest(Long sellerId, String amount, String paymentType) {
+        TransactionRequest request = new TransactionRequest();
+        request.setSellerId(sellerId);
+        request.setAmount(new BigDecimal(amount));
+        request.setPaymentType(paymentType);
+        return request;
+    }
 }